@@ -0,0 +1,74 @@
+package ru.duplicates;
+
+/**
+ * Вариант {@link DuplicateInputCheck} для очень больших объемов ввода.
+ * История хранится в {@link CompactStringIndex}: открытая адресация, примитивные номера
+ * и ключи в байтах UTF-8 в общих блоках. Семантика полностью совпадает
+ * с {@link DuplicateInputCheck}, но на запись расходуется в несколько раз меньше памяти.
+ */
+public class CompactDuplicateInputCheck implements DuplicateCheck {
+
+    /** История ввода: строка и ее порядковый номер. */
+    private final CompactStringIndex inputHistory;
+
+    /** Счетчик, отслеживающий текущий порядковый номер ввода. */
+    private int counter;
+
+    /**
+     * Создает проверку с пустой историей.
+     */
+    public CompactDuplicateInputCheck() {
+        this(16);
+    }
+
+    /**
+     * Создает проверку, рассчитанную на заданное количество различных строк без перестроения истории.
+     * @param expectedInputs Ожидаемое количество различных строк.
+     */
+    public CompactDuplicateInputCheck(int expectedInputs) {
+        inputHistory = new CompactStringIndex(expectedInputs);
+        counter = 1;
+    }
+
+    /**
+     * Проверяет строку без выбрасывания исключения.
+     * @param input Строка, вводимая пользователем.
+     * @return {@link #NEW_INPUT}, если строка новая, иначе номер ее первого ввода.
+     */
+    @Override
+    public int checkInput(String input) {
+        int position = inputHistory.putIfAbsent(input, counter);
+        if (position != CompactStringIndex.ABSENT) {
+            return position;
+        }
+
+        counter++;
+        return NEW_INPUT;
+    }
+
+    /**
+     * Возвращает текущий порядковый номер, который будет присвоен следующему вводимому значению.
+     * @return Текущее значение счетчика.
+     */
+    @Override
+    public int getCounter() {
+        return counter;
+    }
+
+    /**
+     * Увеличивает хранилище заранее, чтобы пакет новых строк не вызывал перестроений.
+     * @param additional Ожидаемое число новых строк.
+     */
+    @Override
+    public void ensureCapacity(int additional) {
+        inputHistory.ensureCapacity(additional);
+    }
+
+    /**
+     * Оценивает объем памяти, занятый историей ввода.
+     * @return Приблизительный объем в байтах.
+     */
+    public long memoryUsage() {
+        return inputHistory.memoryUsage();
+    }
+}
@@ -0,0 +1,403 @@
+package ru.duplicates;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Компактное хранилище пар «строка → положительное число» для сотен миллионов записей.
+ * <p>
+ * Вместо {@code HashMap<String, Integer>} используется открытая адресация с линейным
+ * пробированием по массиву {@code int[]}. Ключи хранятся байтами UTF-8 в общих больших
+ * блоках {@code byte[]} с префиксом длины, значения — в примитивном массиве {@code int[]}.
+ * На запись приходится около 25 байт служебных данных плюс длина ключа в байтах
+ * вместо более чем 100 байт у {@code HashMap} (узел, {@code String}, его массив и {@code Integer}).
+ * <p>
+ * Поиск точный: ключи сравниваются побайтно, хэш используется только для ускорения.
+ * Искать можно как по {@link String}, так и по фрагменту {@link ByteBuffer} с байтами UTF-8,
+ * не создавая строку. Класс не потокобезопасен.
+ */
+public class CompactStringIndex {
+
+    /** Значение, возвращаемое при отсутствии ключа. Само значение 0 хранить нельзя. */
+    public static final int ABSENT = 0;
+
+    /** Размер блока для хранения ключей. */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /** Максимальная заполненность таблицы слотов. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** Максимальная вместимость таблицы слотов. */
+    private static final int MAX_SLOTS = 1 << 30;
+
+    /** Таблица слотов: номер записи плюс один, 0 — пустой слот. */
+    private int[] slots;
+
+    /** Маска для получения индекса слота из хэша. */
+    private int slotMask;
+
+    /** Число записей, при достижении которого таблица слотов увеличивается. */
+    private int resizeThreshold;
+
+    /** Младшие 32 бита хэша каждой записи. */
+    private int[] entryHashes;
+
+    /** Ссылка на ключ каждой записи: номер блока в старших 32 битах, смещение в младших. */
+    private long[] entryKeys;
+
+    /** Значение каждой записи. */
+    private int[] entryValues;
+
+    /** Количество записей. */
+    private int size;
+
+    /** Блоки с ключами. Последний блок заполняется, предыдущие неизменны. */
+    private final List<byte[]> chunks;
+
+    /** Текущий заполняемый блок. */
+    private byte[] currentChunk;
+
+    /** Позиция записи в текущем блоке. */
+    private int chunkPosition;
+
+    /** Суммарный объем выделенных блоков в байтах. */
+    private long chunkBytes;
+
+    /**
+     * Создает пустое хранилище с небольшой начальной вместимостью.
+     */
+    public CompactStringIndex() {
+        this(16);
+    }
+
+    /**
+     * Создает пустое хранилище, рассчитанное на заданное число записей без перестроения.
+     * @param expectedSize Ожидаемое количество записей.
+     * @throws IllegalArgumentException Если {@code expectedSize} отрицательно.
+     */
+    public CompactStringIndex(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Ожидаемый размер не может быть отрицательным");
+        }
+        allocateSlots(slotsFor(expectedSize));
+
+        int entryCapacity = Math.max(16, expectedSize);
+        entryHashes = new int[entryCapacity];
+        entryKeys = new long[entryCapacity];
+        entryValues = new int[entryCapacity];
+
+        chunks = new ArrayList<>();
+        currentChunk = new byte[0];
+    }
+
+    /**
+     * Возвращает значение, сохраненное для ключа.
+     * @param key Искомый ключ.
+     * @return Значение или {@link #ABSENT}, если ключ не найден.
+     */
+    public int get(String key) {
+        int hash = (int) Utf8.hash(key);
+        int entry = findEntry(key, hash);
+        return entry < 0 ? ABSENT : entryValues[entry];
+    }
+
+    /**
+     * Возвращает значение, сохраненное для ключа, заданного байтами UTF-8.
+     * @param buffer Буфер с ключом. Позиция и граница буфера не изменяются.
+     * @param offset Абсолютное начало ключа в буфере.
+     * @param length Длина ключа в байтах.
+     * @return Значение или {@link #ABSENT}, если ключ не найден.
+     */
+    public int get(ByteBuffer buffer, int offset, int length) {
+        int hash = (int) Utf8.hash(buffer, offset, length);
+        int entry = findEntry(buffer, offset, length, hash);
+        return entry < 0 ? ABSENT : entryValues[entry];
+    }
+
+    /**
+     * Сохраняет значение для ключа, если ключ еще не встречался.
+     * @param key Ключ.
+     * @param value Значение, отличное от {@link #ABSENT}.
+     * @return {@link #ABSENT}, если ключ добавлен, иначе ранее сохраненное значение.
+     * @throws IllegalArgumentException Если {@code value} равно {@link #ABSENT}.
+     */
+    public int putIfAbsent(String key, int value) {
+        checkValue(value);
+        int hash = (int) Utf8.hash(key);
+        int slot = hash & slotMask;
+
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (entryHashes[entry] == hash && keyEquals(entry, key)) {
+                return entryValues[entry];
+            }
+            slot = (slot + 1) & slotMask;
+        }
+
+        int length = Utf8.encodedLength(key);
+        long reference = reserveKey(length);
+        Utf8.encode(key, currentChunk, chunkPosition);
+        chunkPosition += length;
+
+        insert(slot, hash, reference, value);
+        return ABSENT;
+    }
+
+    /**
+     * Сохраняет значение для ключа, заданного байтами UTF-8, если ключ еще не встречался.
+     * Байты копируются в хранилище, строка не создается.
+     * @param buffer Буфер с ключом. Позиция и граница буфера не изменяются.
+     * @param offset Абсолютное начало ключа в буфере.
+     * @param length Длина ключа в байтах.
+     * @param value Значение, отличное от {@link #ABSENT}.
+     * @return {@link #ABSENT}, если ключ добавлен, иначе ранее сохраненное значение.
+     * @throws IllegalArgumentException Если {@code value} равно {@link #ABSENT}.
+     */
+    public int putIfAbsent(ByteBuffer buffer, int offset, int length, int value) {
+        int entry = putIfAbsentEntry(buffer, offset, length, value);
+        return entry < 0 ? ABSENT : entryValues[entry];
+    }
+
+    /**
+     * То же, что {@link #putIfAbsent(ByteBuffer, int, int, int)}, но возвращает номер
+     * существующей записи, по которому можно получить ключ через {@link #keyAt(int)}.
+     * @return -1, если ключ добавлен, иначе номер ранее добавленной записи.
+     */
+    int putIfAbsentEntry(ByteBuffer buffer, int offset, int length, int value) {
+        checkValue(value);
+        int hash = (int) Utf8.hash(buffer, offset, length);
+        int slot = hash & slotMask;
+
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (entryHashes[entry] == hash && keyEquals(entry, buffer, offset, length)) {
+                return entry;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+
+        long reference = reserveKey(length);
+        buffer.get(offset, currentChunk, chunkPosition, length);
+        chunkPosition += length;
+
+        insert(slot, hash, reference, value);
+        return -1;
+    }
+
+    /**
+     * Возвращает количество сохраненных ключей.
+     * @return Число записей.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Оценивает объем памяти, занятый хранилищем: массивы слотов, записей и блоки ключей.
+     * @return Приблизительный объем в байтах.
+     */
+    public long memoryUsage() {
+        return 4L * slots.length
+                + (4L + 8L + 4L) * entryValues.length
+                + chunkBytes;
+    }
+
+    /**
+     * Заранее увеличивает хранилище так, чтобы вставка {@code additional} новых ключей
+     * не вызывала перестроения таблицы.
+     * @param additional Ожидаемое число новых ключей.
+     */
+    public void ensureCapacity(int additional) {
+        int required = (int) Math.min(Integer.MAX_VALUE - 8L, (long) size + Math.max(0, additional));
+        if (required > entryValues.length) {
+            growEntries(required);
+        }
+        if (required > resizeThreshold) {
+            rehash(slotsFor(required));
+        }
+    }
+
+    private int findEntry(String key, int hash) {
+        int slot = hash & slotMask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (entryHashes[entry] == hash && keyEquals(entry, key)) {
+                return entry;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    private int findEntry(ByteBuffer buffer, int offset, int length, int hash) {
+        int slot = hash & slotMask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (entryHashes[entry] == hash && keyEquals(entry, buffer, offset, length)) {
+                return entry;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int entry, String key) {
+        long reference = entryKeys[entry];
+        byte[] chunk = chunks.get((int) (reference >>> 32));
+        int position = (int) reference;
+        int length = readLength(chunk, position);
+        return Utf8.equals(key, chunk, position + lengthPrefixSize(length), length);
+    }
+
+    private boolean keyEquals(int entry, ByteBuffer buffer, int offset, int length) {
+        long reference = entryKeys[entry];
+        byte[] chunk = chunks.get((int) (reference >>> 32));
+        int position = (int) reference;
+        int storedLength = readLength(chunk, position);
+        return Utf8.equals(buffer, offset, length, chunk, position + lengthPrefixSize(storedLength), storedLength);
+    }
+
+    /**
+     * Возвращает ключ записи с заданным номером в виде строки.
+     * Номера записей присваиваются по порядку добавления, начиная с 0.
+     * @param entry Номер записи.
+     * @return Ключ записи.
+     */
+    String keyAt(int entry) {
+        long reference = entryKeys[entry];
+        byte[] chunk = chunks.get((int) (reference >>> 32));
+        int position = (int) reference;
+        int length = readLength(chunk, position);
+        return Utf8.decode(chunk, position + lengthPrefixSize(length), length);
+    }
+
+    /**
+     * Возвращает значение записи с заданным номером.
+     * @param entry Номер записи.
+     * @return Значение записи.
+     */
+    int valueAt(int entry) {
+        return entryValues[entry];
+    }
+
+    /**
+     * Резервирует место под ключ заданной длины вместе с префиксом длины.
+     * После вызова байты ключа записываются в {@code currentChunk} начиная с {@code chunkPosition}.
+     * @return Ссылка на начало записи (префикса длины).
+     */
+    private long reserveKey(int length) {
+        int prefixSize = lengthPrefixSize(length);
+        int required = prefixSize + length;
+
+        if (chunkPosition + required > currentChunk.length) {
+            currentChunk = new byte[Math.max(CHUNK_SIZE, required)];
+            chunks.add(currentChunk);
+            chunkPosition = 0;
+            chunkBytes += currentChunk.length;
+        }
+
+        long reference = ((long) (chunks.size() - 1) << 32) | chunkPosition;
+        writeLength(currentChunk, chunkPosition, length);
+        chunkPosition += prefixSize;
+        return reference;
+    }
+
+    private void insert(int slot, int hash, long reference, int value) {
+        if (size == entryValues.length) {
+            growEntries(size + 1);
+        }
+
+        entryHashes[size] = hash;
+        entryKeys[size] = reference;
+        entryValues[size] = value;
+        slots[slot] = size + 1;
+        size++;
+
+        if (size > resizeThreshold) {
+            rehash(slots.length << 1);
+        }
+    }
+
+    private void growEntries(int minCapacity) {
+        int capacity = entryValues.length;
+        int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8L, Math.max(minCapacity, capacity + (capacity >> 1)));
+        if (newCapacity < minCapacity) {
+            throw new IllegalStateException("Превышена максимальная вместимость хранилища");
+        }
+
+        entryHashes = Arrays.copyOf(entryHashes, newCapacity);
+        entryKeys = Arrays.copyOf(entryKeys, newCapacity);
+        entryValues = Arrays.copyOf(entryValues, newCapacity);
+    }
+
+    private void rehash(int slotCount) {
+        if (slotCount > MAX_SLOTS || slotCount <= 0) {
+            throw new IllegalStateException("Превышена максимальная вместимость хранилища");
+        }
+        allocateSlots(slotCount);
+
+        for (int entry = 0; entry < size; entry++) {
+            int slot = entryHashes[entry] & slotMask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & slotMask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private void allocateSlots(int slotCount) {
+        slots = new int[slotCount];
+        slotMask = slotCount - 1;
+        resizeThreshold = slotCount == MAX_SLOTS ? MAX_SLOTS - 1 : (int) (slotCount * LOAD_FACTOR);
+    }
+
+    private static int slotsFor(int entries) {
+        long required = Math.max(16L, (long) Math.ceil(entries / (double) LOAD_FACTOR) + 1);
+        if (required > MAX_SLOTS) {
+            return MAX_SLOTS;
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+
+    private static void checkValue(int value) {
+        if (value == ABSENT) {
+            throw new IllegalArgumentException("Значение " + ABSENT + " зарезервировано для отсутствующих ключей");
+        }
+    }
+
+    /** Длина ключа хранится в формате varint: 7 бит на байт. */
+    private static int lengthPrefixSize(int length) {
+        if (length < (1 << 7)) {
+            return 1;
+        }
+        if (length < (1 << 14)) {
+            return 2;
+        }
+        if (length < (1 << 21)) {
+            return 3;
+        }
+        return length < (1 << 28) ? 4 : 5;
+    }
+
+    private static void writeLength(byte[] chunk, int position, int length) {
+        while (length >= 0x80) {
+            chunk[position++] = (byte) (length | 0x80);
+            length >>>= 7;
+        }
+        chunk[position] = (byte) length;
+    }
+
+    private static int readLength(byte[] chunk, int position) {
+        int length = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = chunk[position++];
+            length |= (current & 0x7F) << shift;
+            shift += 7;
+        } while (current < 0);
+        return length;
+    }
+}
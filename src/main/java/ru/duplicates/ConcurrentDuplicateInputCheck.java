@@ -0,0 +1,122 @@
+package ru.duplicates;
+
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потокобезопасный вариант {@link DuplicateInputCheck} для многопоточной обработки ввода.
+ * История разбита на независимые сегменты (lock striping): строка попадает в сегмент
+ * по своему хэшу, и блокируется только этот сегмент. Потоки, добавляющие разные строки,
+ * в большинстве случаев не конкурируют друг с другом.
+ * <p>
+ * Правило «побеждает первый» сохраняется: из нескольких потоков, одновременно добавляющих
+ * одну и ту же строку, ровно один получает новый порядковый номер, остальные получают
+ * {@link AlreadyExistsException} с этим номером. Номера выдаются только новым строкам
+ * и остаются непрерывными, начиная с 1.
+ */
+public class ConcurrentDuplicateInputCheck implements DuplicateCheck {
+
+    /** Количество сегментов по умолчанию: степень двойки не меньше удвоенного числа ядер. */
+    private static final int DEFAULT_STRIPES =
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+
+    /** Сегменты истории ввода. Каждый сегмент защищен собственным монитором. */
+    private final Map<String, Integer>[] stripes;
+
+    /** Маска для выбора сегмента по хэшу строки. */
+    private final int stripeMask;
+
+    /** Счетчик порядковых номеров, общий для всех сегментов. */
+    private final AtomicInteger counter;
+
+    /**
+     * Создает проверку с числом сегментов, подобранным по количеству доступных процессоров.
+     */
+    public ConcurrentDuplicateInputCheck() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Создает проверку с заданным числом сегментов.
+     * @param stripeCount Желаемое число сегментов, округляется вверх до степени двойки.
+     * @throws IllegalArgumentException Если {@code stripeCount} меньше 1.
+     */
+    public ConcurrentDuplicateInputCheck(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Число сегментов должно быть положительным");
+        }
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+
+        stripes = newStripes(size);
+        stripeMask = size - 1;
+        counter = new AtomicInteger(1);
+    }
+
+    /** Создает пустые сегменты; массив обобщенного типа создается без проверки типов. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, Integer>[] newStripes(int size) {
+        Map<String, Integer>[] stripes = new Map[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new HashMap<>();
+        }
+        return stripes;
+    }
+
+    /**
+     * Проверяет, была ли строка {@code input} введена ранее, и добавляет ее в историю, если нет.
+     * Метод можно вызывать из нескольких потоков одновременно.
+     * @param input Строка, вводимая пользователем.
+     * @throws AlreadyExistsException Если {@code input} уже был добавлен ранее (в том числе другим потоком).
+     */
+    @Override
+    public void addInput(String input) throws AlreadyExistsException {
+        int position = checkInput(input);
+        if (position != NEW_INPUT) {
+            throw new AlreadyExistsException(input, position);
+        }
+    }
+
+    /**
+     * Проверяет строку без выбрасывания исключения. Метод можно вызывать из нескольких потоков одновременно.
+     * @param input Строка, вводимая пользователем.
+     * @return {@link #NEW_INPUT}, если строка новая, иначе номер ее первого ввода.
+     */
+    @Override
+    public int checkInput(String input) {
+        Map<String, Integer> stripe = stripeFor(input);
+
+        synchronized (stripe) {
+            Integer position = stripe.get(input);
+            if (position != null) {
+                return position;
+            }
+            stripe.put(input, counter.getAndIncrement());
+        }
+        return NEW_INPUT;
+    }
+
+    /**
+     * Возвращает порядковый номер, который будет присвоен следующему новому значению.
+     * При конкурентном добавлении значение является лишь моментальным снимком.
+     * @return Текущее значение счетчика.
+     */
+    @Override
+    public int getCounter() {
+        return counter.get();
+    }
+
+    /**
+     * Выбирает сегмент для строки. Хэш перемешивается, чтобы старшие биты
+     * {@link String#hashCode()} тоже влияли на выбор сегмента.
+     */
+    private Map<String, Integer> stripeFor(String input) {
+        int hash = input.hashCode();
+        hash ^= (hash >>> 16);
+        hash *= 0x85EBCA6B;
+        hash ^= (hash >>> 13);
+        return stripes[hash & stripeMask];
+    }
+}
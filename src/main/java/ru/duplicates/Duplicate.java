@@ -0,0 +1,9 @@
+package ru.duplicates;
+
+/**
+ * Запись (record) о найденном дубликате при пакетной проверке.
+ * @param value дублирующееся значение
+ * @param index индекс значения во входном пакете или потоке, начиная с 0
+ * @param firstPosition порядковый номер, под которым значение было введено впервые
+ */
+public record Duplicate(String value, int index, int firstPosition) {}
@@ -0,0 +1,114 @@
+package ru.duplicates;
+
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Общий контракт проверок ввода на дублирование.
+ * Каждой новой строке присваивается порядковый номер, начиная с 1;
+ * повторный ввод сообщает номер, под которым строка была введена впервые.
+ */
+public interface DuplicateCheck {
+
+    /** Результат {@link #checkInput(String)} для строки, которая ранее не встречалась. */
+    int NEW_INPUT = 0;
+
+    /**
+     * Проверяет строку без выбрасывания исключения.
+     * Если строка новая, она добавляется в историю с текущим порядковым номером.
+     * Метод не создает объектов на каждый вызов, поэтому подходит для потоков
+     * с большой долей повторов.
+     * @param input Строка, вводимая пользователем.
+     * @return {@link #NEW_INPUT}, если строка новая, иначе номер ее первого ввода.
+     */
+    int checkInput(String input);
+
+    /**
+     * Проверяет, была ли строка {@code input} введена ранее.
+     * Если строка новая, она добавляется в историю с текущим порядковым номером.
+     * @param input Строка, вводимая пользователем.
+     * @throws AlreadyExistsException Если {@code input} уже был введен ранее.
+     */
+    default void addInput(String input) throws AlreadyExistsException {
+        int position = checkInput(input);
+        if (position != NEW_INPUT) {
+            throw new AlreadyExistsException(input, position);
+        }
+    }
+
+    /**
+     * Возвращает порядковый номер, который будет присвоен следующему новому значению.
+     * @return Текущее значение счетчика.
+     */
+    int getCounter();
+
+    /**
+     * Заранее готовит историю к добавлению {@code additional} новых строк, чтобы пакетное
+     * добавление не перестраивало хранилище многократно. По умолчанию ничего не делает.
+     * @param additional Ожидаемое число новых строк.
+     */
+    default void ensureCapacity(int additional) {
+    }
+
+    /**
+     * Добавляет все строки пакета по порядку и возвращает все найденные дубликаты,
+     * не останавливаясь на первом. Повторы внутри пакета тоже считаются дубликатами.
+     * @param inputs Строки для проверки.
+     * @return Дубликаты в порядке их следования в пакете.
+     */
+    default List<Duplicate> addAll(List<String> inputs) {
+        ensureCapacity(inputs.size());
+
+        List<Duplicate> duplicates = new ArrayList<>();
+        int index = 0;
+        for (String input : inputs) {
+            int position = checkInput(input);
+            if (position != NEW_INPUT) {
+                duplicates.add(new Duplicate(input, index, position));
+            }
+            index++;
+        }
+        return duplicates;
+    }
+
+    /**
+     * Добавляет все строки массива по порядку и возвращает все найденные дубликаты.
+     * @param inputs Строки для проверки.
+     * @return Дубликаты в порядке их следования в массиве.
+     */
+    default List<Duplicate> addAll(String... inputs) {
+        return addAll(Arrays.asList(inputs));
+    }
+
+    /**
+     * Фильтрует поток, оставляя только новые строки; все строки потока добавляются в историю.
+     * Поток обрабатывается последовательно и лениво.
+     * @param inputs Исходный поток строк.
+     * @return Поток строк, которые встретились впервые.
+     */
+    default Stream<String> filterNew(Stream<String> inputs) {
+        return inputs.sequential().filter(input -> checkInput(input) == NEW_INPUT);
+    }
+
+    /**
+     * Лениво проверяет поток и возвращает только дубликаты; все строки потока добавляются в историю.
+     * Индекс дубликата отсчитывается от начала переданного потока.
+     * @param inputs Исходный поток строк.
+     * @return Поток найденных дубликатов.
+     */
+    default Stream<Duplicate> findDuplicates(Stream<String> inputs) {
+        int[] index = {0};
+        return inputs.sequential()
+                .map(input -> {
+                    int position = checkInput(input);
+                    int current = index[0]++;
+                    return position == NEW_INPUT ? null : new Duplicate(input, current, position);
+                })
+                .filter(Objects::nonNull);
+    }
+}
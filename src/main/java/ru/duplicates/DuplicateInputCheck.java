@@ -2,20 +2,27 @@ package ru.duplicates;
 
 import ru.duplicates.exceptions.AlreadyExistsException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Класс для проверки ввода пользователя на дублирование.
  * Использует HashMap для хранения истории введенных строк и их порядковых номеров.
  */
-public class DuplicateInputCheck {
+public class DuplicateInputCheck implements DuplicateCheck {
 
     /**
      * Карта для хранения истории ввода, где ключ - введенная строка (String),
      * а значение - порядковый номер ввода (Integer), начиная с 1.
      */
-    private final Map<String, Integer> inputHistory;
+    private Map<String, Integer> inputHistory;
+
+    /** Количество строк, под которое заранее рассчитана пустая история. */
+    private int presizedInputs;
 
     /** Счетчик, отслеживающий текущий порядковый номер ввода.
      * Используется как позиция для нового элемента и увеличивается после добавления.
@@ -30,26 +37,194 @@ public class DuplicateInputCheck {
         counter = 1;
     }
 
+    /**
+     * Создает проверку с историей, заранее рассчитанной на {@code expectedInputs} различных строк.
+     * @param expectedInputs Ожидаемое количество различных строк.
+     * @throws IllegalArgumentException Если {@code expectedInputs} отрицательно.
+     */
+    public DuplicateInputCheck(int expectedInputs) {
+        if (expectedInputs < 0) {
+            throw new IllegalArgumentException("Ожидаемое количество строк не может быть отрицательным");
+        }
+        inputHistory = new HashMap<>(tableSizeFor(expectedInputs));
+        presizedInputs = expectedInputs;
+        counter = 1;
+    }
+
     /**
      * Проверяет, была ли строка {@code input} введена ранее.
      * Если строка новая, она добавляется в историю с текущим порядковым номером.
      * @param input Строка, вводимая пользователем.
      * @throws AlreadyExistsException Если {@code input} уже содержится в {@code inputHistory}.
      */
+    @Override
     public void addInput(String input) throws AlreadyExistsException {
-        if (inputHistory.containsKey(input)) {
-            throw new AlreadyExistsException(input, inputHistory.get(input));
+        int position = checkInput(input);
+        if (position != NEW_INPUT) {
+            throw new AlreadyExistsException(input, position);
+        }
+    }
+
+    /**
+     * Проверяет строку без выбрасывания исключения.
+     * Номер первого ввода хранится в карте уже упакованным, поэтому повтор не создает объектов.
+     * @param input Строка, вводимая пользователем.
+     * @return {@link #NEW_INPUT}, если строка новая, иначе номер ее первого ввода.
+     */
+    @Override
+    public int checkInput(String input) {
+        Integer position = inputHistory.get(input);
+        if (position != null) {
+            return position;
         }
 
         inputHistory.put(input, counter);
         counter++;
+        return NEW_INPUT;
     }
 
     /**
      * Возвращает текущий порядковый номер, который будет присвоен следующему вводимому значению.
      * @return Текущее значение счетчика.
      */
+    @Override
     public int getCounter() {
         return counter;
     }
-}
\ No newline at end of file
+
+    /**
+     * Рассчитывает пустую историю на {@code additional} строк, чтобы первый пакет не удваивал
+     * таблицу по ходу добавления. Непустая история не перестраивается: перенос всех записей
+     * стоит не меньше, чем рост таблицы самой {@link HashMap}. Для заранее известного объема
+     * используйте {@link #DuplicateInputCheck(int)}.
+     * @param additional Ожидаемое число новых строк.
+     */
+    @Override
+    public void ensureCapacity(int additional) {
+        if (inputHistory.isEmpty() && additional > presizedInputs) {
+            inputHistory = new HashMap<>(tableSizeFor(additional));
+            presizedInputs = additional;
+        }
+    }
+
+    /**
+     * Параллельно проверяет пакет строк. Результат и итоговая история совпадают
+     * с последовательным {@link #addAll(List)}: номера выдаются новым строкам в порядке
+     * их первого появления в пакете.
+     * <p>
+     * Строки распределяются по разделам по хэшу, поэтому все вхождения одной строки попадают
+     * в один раздел. Разделы параллельно сверяются с историей (только чтение) и находят
+     * первое вхождение каждой строки внутри пакета. Затем за один последовательный проход
+     * новые строки получают номера и добавляются в историю.
+     * Разделы обрабатываются в общем пуле {@link ForkJoinPool#commonPool()}.
+     * @param inputs Строки для проверки.
+     * @return Дубликаты в порядке их следования в пакете.
+     */
+    public List<Duplicate> addAllParallel(List<String> inputs) {
+        return addAllParallel(inputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельно проверяет пакет строк в заданном пуле; см. {@link #addAllParallel(List)}.
+     * @param inputs Строки для проверки.
+     * @param pool Пул, в котором обрабатываются разделы; количество разделов зависит от его параллелизма.
+     * @return Дубликаты в порядке их следования в пакете.
+     */
+    public List<Duplicate> addAllParallel(List<String> inputs, ForkJoinPool pool) {
+        int size = inputs.size();
+        String[] values = inputs.toArray(new String[0]);
+        int partitions = pool.getParallelism() * 4;
+
+        int[] partitionOf = new int[size];
+        int[] partitionStart = new int[partitions + 1];
+        for (int i = 0; i < size; i++) {
+            int hash = values[i].hashCode();
+            int partition = Math.floorMod(hash ^ (hash >>> 16), partitions);
+            partitionOf[i] = partition;
+            partitionStart[partition + 1]++;
+        }
+        for (int p = 0; p < partitions; p++) {
+            partitionStart[p + 1] += partitionStart[p];
+        }
+
+        int[] order = new int[size];
+        int[] fill = partitionStart.clone();
+        for (int i = 0; i < size; i++) {
+            order[fill[partitionOf[i]]++] = i;
+        }
+
+        // Для каждой строки: номер из истории (> 0), NEW_INPUT или -(индекс первого вхождения + 1).
+        int[] resolved = new int[size];
+        pool.invoke(new PartitionTask(inputHistory, values, order, partitionStart, resolved, 0, partitions));
+
+        ensureCapacity(size);
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int state = resolved[i];
+            if (state == NEW_INPUT) {
+                resolved[i] = counter;
+                inputHistory.put(values[i], counter);
+                counter++;
+            } else {
+                int position = state > 0 ? state : resolved[-state - 1];
+                resolved[i] = position;
+                duplicates.add(new Duplicate(values[i], i, position));
+            }
+        }
+        return duplicates;
+    }
+
+    /** Начальная емкость {@link HashMap}, при которой {@code entries} записей помещаются без перестроения. */
+    private static int tableSizeFor(int entries) {
+        return (int) Math.min(1 << 30, (long) Math.ceil(entries / 0.75));
+    }
+
+    /**
+     * Задача сверки разделов {@code [from, to)} с историей; история только читается,
+     * результаты записываются в непересекающиеся элементы {@code resolved}.
+     */
+    @SuppressWarnings("serial")
+    private static final class PartitionTask extends RecursiveAction {
+
+        private final Map<String, Integer> history;
+        private final String[] values;
+        private final int[] order;
+        private final int[] partitionStart;
+        private final int[] resolved;
+        private final int from;
+        private final int to;
+
+        PartitionTask(Map<String, Integer> history, String[] values, int[] order, int[] partitionStart,
+                      int[] resolved, int from, int to) {
+            this.history = history;
+            this.values = values;
+            this.order = order;
+            this.partitionStart = partitionStart;
+            this.resolved = resolved;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PartitionTask(history, values, order, partitionStart, resolved, from, middle),
+                        new PartitionTask(history, values, order, partitionStart, resolved, middle, to));
+                return;
+            }
+
+            Map<String, Integer> firstIndex = new HashMap<>();
+            for (int k = partitionStart[from]; k < partitionStart[from + 1]; k++) {
+                int i = order[k];
+                Integer position = history.get(values[i]);
+                if (position != null) {
+                    resolved[i] = position;
+                    continue;
+                }
+                Integer first = firstIndex.putIfAbsent(values[i], i);
+                resolved[i] = first == null ? NEW_INPUT : -(first + 1);
+            }
+        }
+    }
+}
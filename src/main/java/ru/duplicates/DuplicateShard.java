@@ -0,0 +1,328 @@
+package ru.duplicates;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Часть (шард) истории ввода для распределенной проверки на дублирование.
+ * <p>
+ * Строки распределяются по шардам по хэшу байтов UTF-8 ({@link #shardOf(String, int)}),
+ * который не зависит от JVM, поэтому все узлы одинаково определяют шард строки.
+ * Позиции в шарде глобальные и назначаются вызывающей стороной: например, номер строки
+ * во всем входном файле или смещение сегмента узла плюс локальный номер. Позиции
+ * разных вхождений должны быть уникальными.
+ * <p>
+ * Правила согласования при слиянии ({@link #merge(DuplicateShard)}) и при добавлении:
+ * <ul>
+ *     <li>первым вхождением строки считается вхождение с наименьшей позицией;</li>
+ *     <li>если строка есть в обоих шардах, сохраняется меньшая позиция, а вхождение
+ *     с большей позицией сообщается как дубликат;</li>
+ *     <li>результат слияния не зависит от порядка слияния шардов.</li>
+ * </ul>
+ * При добавлении ({@link #checkInput(String, int)}) позиции могут приходить не по порядку:
+ * если меньшая позиция приходит после большей, большее вхождение, ранее принятое как новое,
+ * становится дубликатом и сообщается через {@link #drainDisplaced()}.
+ * Шард сериализуется в компактный двоичный снимок ({@link #writeTo(OutputStream)}):
+ * заголовок и записи, упорядоченные по позиции; ключ записан байтами UTF-8
+ * с длиной в формате varint, позиция — в формате varint.
+ */
+public class DuplicateShard {
+
+    /** Сигнатура снимка: "DSHD". */
+    private static final int MAGIC = 0x44534844;
+    private static final int VERSION = 1;
+
+    /** Номер шарда. */
+    private final int shardIndex;
+
+    /** Общее количество шардов. */
+    private final int shardCount;
+
+    /** История шарда: строка и позиция ее первого вхождения. */
+    private final Map<String, Integer> firstPositions;
+
+    /** Вхождения, вытесненные при добавлении более ранней позицией и еще не переданные вызывающей стороне. */
+    private final List<Duplicate> displaced;
+
+    /**
+     * Создает пустой шард.
+     * @param shardIndex Номер шарда, от 0 до {@code shardCount - 1}.
+     * @param shardCount Общее количество шардов.
+     * @throws IllegalArgumentException Если номер шарда вне диапазона.
+     */
+    public DuplicateShard(int shardIndex, int shardCount) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Неверный номер шарда " + shardIndex + " из " + shardCount);
+        }
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.firstPositions = new HashMap<>();
+        this.displaced = new ArrayList<>();
+    }
+
+    /**
+     * Определяет шард для строки.
+     * @param value Строка.
+     * @param shardCount Общее количество шардов.
+     * @return Номер шарда от 0 до {@code shardCount - 1}.
+     */
+    public static int shardOf(String value, int shardCount) {
+        return (int) Long.remainderUnsigned(Utf8.hash(value), shardCount);
+    }
+
+    /**
+     * Проверяет вхождение строки с заданной глобальной позицией и добавляет его в историю шарда.
+     * Если строка уже встречалась с большей позицией, это вхождение становится первым,
+     * а прежнее сохраняется как дубликат для {@link #drainDisplaced()}.
+     * @param value Строка, принадлежащая этому шарду.
+     * @param position Глобальная позиция вхождения (больше 0).
+     * @return {@link DuplicateCheck#NEW_INPUT}, если это первое из известных вхождений,
+     * иначе позиция более раннего вхождения.
+     * @throws IllegalArgumentException Если строка принадлежит другому шарду или позиция не положительна.
+     */
+    public int checkInput(String value, int position) {
+        if (position <= 0) {
+            throw new IllegalArgumentException("Позиция должна быть положительной");
+        }
+        if (shardOf(value, shardCount) != shardIndex) {
+            throw new IllegalArgumentException("Строка '" + value + "' принадлежит шарду " + shardOf(value, shardCount));
+        }
+
+        Integer first = firstPositions.get(value);
+        if (first == null || first > position) {
+            firstPositions.put(value, position);
+            if (first != null) {
+                displaced.add(new Duplicate(value, first, position));
+            }
+            return DuplicateCheck.NEW_INPUT;
+        }
+        return first;
+    }
+
+    /**
+     * Возвращает и забывает вхождения, которые {@link #checkInput(String, int)} сначала приняла
+     * как новые, а затем вытеснила более ранней позицией той же строки.
+     * @return Дубликаты в порядке вытеснения: {@link Duplicate#index()} содержит большую позицию,
+     * {@link Duplicate#firstPosition()} — меньшую, пришедшую позже.
+     */
+    public List<Duplicate> drainDisplaced() {
+        List<Duplicate> result = new ArrayList<>(displaced);
+        displaced.clear();
+        return result;
+    }
+
+    /**
+     * Возвращает позицию первого вхождения строки.
+     * @param value Строка.
+     * @return Позиция или {@link DuplicateCheck#NEW_INPUT}, если строка не встречалась.
+     */
+    public int firstPosition(String value) {
+        return firstPositions.getOrDefault(value, DuplicateCheck.NEW_INPUT);
+    }
+
+    /**
+     * Сливает в этот шард историю другого узла для того же шарда.
+     * @param other Шард с тем же номером и тем же общим количеством шардов.
+     * @return Вхождения, оказавшиеся дубликатами после слияния: {@link Duplicate#index()} содержит
+     * большую позицию, {@link Duplicate#firstPosition()} — сохраненную меньшую.
+     * @throws IllegalArgumentException Если шарды несовместимы.
+     */
+    public List<Duplicate> merge(DuplicateShard other) {
+        if (other.shardIndex != shardIndex || other.shardCount != shardCount) {
+            throw new IllegalArgumentException("Нельзя слить шард " + other.shardIndex + "/" + other.shardCount
+                    + " с шардом " + shardIndex + "/" + shardCount);
+        }
+
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : other.firstPositions.entrySet()) {
+            String value = entry.getKey();
+            int position = entry.getValue();
+            Integer existing = firstPositions.putIfAbsent(value, position);
+
+            if (existing != null && existing != position) {
+                int first = Math.min(existing, position);
+                firstPositions.put(value, first);
+                duplicates.add(new Duplicate(value, Math.max(existing, position), first));
+            }
+        }
+        duplicates.sort((left, right) -> Integer.compare(left.index(), right.index()));
+        return duplicates;
+    }
+
+    /**
+     * Возвращает количество различных строк в шарде.
+     * @return Размер истории.
+     */
+    public int size() {
+        return firstPositions.size();
+    }
+
+    /**
+     * Возвращает номер шарда.
+     * @return Номер шарда.
+     */
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    /**
+     * Возвращает общее количество шардов.
+     * @return Количество шардов.
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Записывает двоичный снимок шарда.
+     * @param out Поток для записи.
+     * @throws IOException Если запись не удалась.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(firstPositions.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(shardIndex);
+        data.writeInt(shardCount);
+        data.writeInt(entries.size());
+
+        byte[] scratch = new byte[64];
+        for (Map.Entry<String, Integer> entry : entries) {
+            String value = entry.getKey();
+            int length = Utf8.encodedLength(value);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length << 1)];
+            }
+            Utf8.encode(value, scratch, 0);
+
+            writeVarInt(data, length);
+            data.write(scratch, 0, length);
+            writeVarInt(data, entry.getValue());
+        }
+        data.flush();
+    }
+
+    /**
+     * Возвращает двоичный снимок шарда в виде массива байтов.
+     * @return Снимок.
+     */
+    public byte[] toSnapshot() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Читает шард из двоичного снимка.
+     * @param in Поток со снимком.
+     * @return Восстановленный шард.
+     * @throws IOException Если снимок не удалось прочитать или он поврежден.
+     */
+    public static DuplicateShard readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readByte() != VERSION) {
+            throw new IOException("Неизвестный формат снимка шарда");
+        }
+
+        int shardIndex = data.readInt();
+        int shardCount = data.readInt();
+        int entryCount = data.readInt();
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount || entryCount < 0) {
+            throw new IOException("Снимок шарда поврежден");
+        }
+
+        DuplicateShard shard = new DuplicateShard(shardIndex, shardCount);
+        byte[] scratch = new byte[64];
+        for (int i = 0; i < entryCount; i++) {
+            int length = readVarInt(data);
+            if (length < 0) {
+                throw new IOException("Снимок шарда поврежден: неверная длина строки " + length);
+            }
+            scratch = readKey(data, scratch, length);
+            int position = readVarInt(data);
+            if (position <= 0) {
+                throw new IOException("Снимок шарда поврежден: неверная позиция " + position);
+            }
+            String value = Utf8.decode(scratch, 0, length);
+            if (shardOf(value, shardCount) != shardIndex) {
+                throw new IOException("Снимок шарда поврежден: строка '" + value + "' принадлежит шарду "
+                        + shardOf(value, shardCount));
+            }
+            if (shard.firstPositions.put(value, position) != null) {
+                throw new IOException("Снимок шарда поврежден: строка '" + value + "' записана дважды");
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * Читает байты ключа в буфер. Буфер растет только по мере поступления данных, поэтому
+     * поврежденная длина в оборванном снимке приводит к {@link java.io.EOFException},
+     * а не к выделению массива заявленного размера.
+     */
+    private static byte[] readKey(DataInputStream in, byte[] scratch, int length) throws IOException {
+        if (length <= scratch.length) {
+            in.readFully(scratch, 0, length);
+            return scratch;
+        }
+
+        int read = 0;
+        while (read < length) {
+            if (read == scratch.length) {
+                scratch = Arrays.copyOf(scratch, (int) Math.min(length, (long) scratch.length << 1));
+            }
+            int chunk = Math.min(length, scratch.length) - read;
+            in.readFully(scratch, read, chunk);
+            read += chunk;
+        }
+        return scratch;
+    }
+
+    /**
+     * Восстанавливает шард из массива байтов.
+     * @param snapshot Снимок, полученный {@link #toSnapshot()}.
+     * @return Восстановленный шард.
+     * @throws IOException Если снимок поврежден.
+     */
+    public static DuplicateShard fromSnapshot(byte[] snapshot) throws IOException {
+        return readFrom(new ByteArrayInputStream(snapshot));
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte current = in.readByte();
+            value |= (current & 0x7F) << shift;
+            if (current >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Снимок шарда поврежден");
+    }
+}
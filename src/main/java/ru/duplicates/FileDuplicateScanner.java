@@ -0,0 +1,228 @@
+package ru.duplicates;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Неинтерактивный поиск повторяющихся строк в больших текстовых файлах.
+ * <p>
+ * Файл отображается в память окнами до 1 ГБ, поток (например, стандартный ввод) читается
+ * через канал в буфер. Строки разбираются прямо в байтах: ключ ищется в
+ * {@link CompactStringIndex} по фрагменту буфера, и строка {@link String} создается
+ * только для значений, попадающих в отчет. Позицией значения служит номер строки файла,
+ * начиная с 1. Завершающие {@code \r} отбрасываются, поэтому поддерживаются переводы строк Windows.
+ * Класс не потокобезопасен и рассчитан на один проход.
+ */
+public class FileDuplicateScanner {
+
+    /** Максимальный размер окна отображения файла в память. */
+    private static final long MAP_WINDOW = 1L << 30;
+
+    /** Начальный размер буфера чтения из потока. */
+    private static final int STREAM_BUFFER = 1 << 20;
+
+    /** Уникальные строки: байты строки и номер строки ее первого появления. */
+    private final CompactStringIndex index;
+
+    /** Номера записей индекса для каждого найденного повтора. */
+    private int[] repeatEntries;
+
+    /** Номера строк каждого найденного повтора. */
+    private int[] repeatLines;
+
+    /** Количество найденных повторов. */
+    private int repeatCount;
+
+    /** Количество прочитанных строк. */
+    private int lineCount;
+
+    /** Количество прочитанных байтов. */
+    private long byteCount;
+
+    /**
+     * Создает сканер с пустой историей.
+     */
+    public FileDuplicateScanner() {
+        index = new CompactStringIndex();
+        repeatEntries = new int[16];
+        repeatLines = new int[16];
+    }
+
+    /**
+     * Сканирует файл, отображая его в память.
+     * @param file Путь к файлу.
+     * @throws IOException Если файл не удалось прочитать.
+     */
+    public void scan(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+
+            while (start < size) {
+                long windowSize = Math.min(MAP_WINDOW, size - start);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowSize);
+                boolean last = start + windowSize == size;
+
+                int consumed = scanLines(window, 0, (int) windowSize, last);
+                if (consumed == 0 && !last) {
+                    throw new IOException("Строка длиннее " + MAP_WINDOW + " байт не поддерживается");
+                }
+                start += consumed;
+            }
+        }
+    }
+
+    /**
+     * Сканирует поток байтов, читая его через буфер.
+     * @param channel Канал с текстом в UTF-8.
+     * @throws IOException Если поток не удалось прочитать.
+     */
+    public void scan(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER);
+        boolean last = false;
+
+        while (!last) {
+            last = channel.read(buffer) < 0;
+            if (!last && buffer.hasRemaining()) {
+                continue;
+            }
+
+            int consumed = scanLines(buffer, 0, buffer.position(), last);
+            buffer.flip();
+            buffer.position(consumed);
+            buffer.compact();
+
+            if (!buffer.hasRemaining()) {
+                buffer = ByteBuffer.allocate(buffer.capacity() << 1).put(buffer.flip());
+            }
+        }
+    }
+
+    /**
+     * Записывает отчет о повторах: для каждого повторяющегося значения в порядке первого появления
+     * выводится значение, номер строки первого появления и номера строк всех повторов.
+     * Формат: строки с полями, разделенными табуляцией.
+     * @param out Приемник отчета.
+     * @throws IOException Если запись не удалась.
+     */
+    public void writeReport(Writer out) throws IOException {
+        // Запись индекса в старших битах, номер строки в младших: сортировка группирует повторы
+        // по значению в порядке первого появления, а внутри группы — по номеру строки.
+        long[] order = new long[repeatCount];
+        for (int i = 0; i < repeatCount; i++) {
+            order[i] = ((long) repeatEntries[i] << 32) | repeatLines[i];
+        }
+        Arrays.sort(order);
+
+        out.write("Значение\tПервая строка\tПовторы\n");
+        int i = 0;
+        while (i < repeatCount) {
+            int entry = (int) (order[i] >>> 32);
+            out.write(index.keyAt(entry));
+            out.write('\t');
+            out.write(Integer.toString(index.valueAt(entry)));
+            out.write('\t');
+
+            boolean first = true;
+            while (i < repeatCount && (int) (order[i] >>> 32) == entry) {
+                if (!first) {
+                    out.write(',');
+                }
+                out.write(Integer.toString((int) order[i]));
+                first = false;
+                i++;
+            }
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Возвращает количество прочитанных строк.
+     * @return Число строк.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Возвращает количество различных строк.
+     * @return Число уникальных значений.
+     */
+    public int getUniqueCount() {
+        return index.size();
+    }
+
+    /**
+     * Возвращает количество найденных повторов (строк, встретившихся не впервые).
+     * @return Число повторов.
+     */
+    public int getRepeatCount() {
+        return repeatCount;
+    }
+
+    /**
+     * Возвращает количество прочитанных байтов.
+     * @return Число байтов.
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Разбирает строки в диапазоне буфера.
+     * @return Число обработанных байтов; неполная последняя строка остается необработанной,
+     * если {@code last} равно {@code false}.
+     */
+    private int scanLines(ByteBuffer buffer, int from, int to, boolean last) {
+        int lineStart = from;
+
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                addLine(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+
+        if (last && lineStart < to) {
+            addLine(buffer, lineStart, to);
+            lineStart = to;
+        }
+
+        byteCount += lineStart - from;
+        return lineStart - from;
+    }
+
+    private void addLine(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (lineCount == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Превышено максимальное количество строк");
+        }
+        lineCount++;
+
+        int entry = index.putIfAbsentEntry(buffer, start, end - start, lineCount);
+        if (entry >= 0) {
+            recordRepeat(entry, lineCount);
+        }
+    }
+
+    private void recordRepeat(int entry, int line) {
+        if (repeatCount == repeatLines.length) {
+            int capacity = repeatLines.length + (repeatLines.length >> 1);
+            repeatEntries = Arrays.copyOf(repeatEntries, capacity);
+            repeatLines = Arrays.copyOf(repeatLines, capacity);
+        }
+        repeatEntries[repeatCount] = entry;
+        repeatLines[repeatCount] = line;
+        repeatCount++;
+    }
+}
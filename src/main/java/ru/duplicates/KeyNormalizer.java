@@ -0,0 +1,146 @@
+package ru.duplicates;
+
+import java.text.Normalizer;
+
+/**
+ * Правила приведения строк к ключу сравнения: без учета регистра, без пробельных символов
+ * по краям и в заданной форме нормализации Юникода.
+ * <p>
+ * Хэш и сравнение вычисляются по кодовым точкам исходной строки с учетом правил «на лету»,
+ * без создания нормализованных копий: границы без пробелов находятся проходом с краев,
+ * регистр сворачивается посимвольно как в {@link String#equalsIgnoreCase(String)}.
+ * Нормализация Юникода применяется только к строкам, которые еще не находятся в нужной форме;
+ * для них (редкий случай) создается нормализованная копия.
+ */
+public final class KeyNormalizer {
+
+    /** Правила, при которых строки сравниваются как есть. */
+    public static final KeyNormalizer EXACT = new KeyNormalizer(false, false, null);
+
+    /** Не учитывать регистр. */
+    private final boolean ignoreCase;
+
+    /** Не учитывать пробельные символы в начале и в конце. */
+    private final boolean stripWhitespace;
+
+    /** Форма нормализации Юникода или {@code null}. */
+    private final Normalizer.Form form;
+
+    /** Символы ниже этой границы не изменяются нормализацией {@code form}. */
+    private final char stableBelow;
+
+    private KeyNormalizer(boolean ignoreCase, boolean stripWhitespace, Normalizer.Form form) {
+        this.ignoreCase = ignoreCase;
+        this.stripWhitespace = stripWhitespace;
+        this.form = form;
+        this.stableBelow = form == null ? Character.MAX_VALUE : switch (form) {
+            case NFC -> '\u0300';
+            case NFD -> '\u00C0';
+            case NFKC, NFKD -> '\u00A0';
+        };
+    }
+
+    /**
+     * Создает правила приведения ключей.
+     * @param ignoreCase Не учитывать регистр символов.
+     * @param stripWhitespace Не учитывать пробельные символы в начале и в конце строки.
+     * @param form Форма нормализации Юникода или {@code null}, если нормализация не нужна.
+     * @return Правила приведения.
+     */
+    public static KeyNormalizer of(boolean ignoreCase, boolean stripWhitespace, Normalizer.Form form) {
+        return new KeyNormalizer(ignoreCase, stripWhitespace, form);
+    }
+
+    /**
+     * Приводит строку к заданной форме Юникода, если она еще не в этой форме.
+     * Для строк из символов, не затрагиваемых нормализацией, и уже нормализованных строк
+     * возвращается исходный объект.
+     * @param value Исходная строка.
+     * @return Строка в заданной форме нормализации.
+     */
+    String prepare(String value) {
+        if (form == null) {
+            return value;
+        }
+        for (int i = 0, length = value.length(); i < length; i++) {
+            if (value.charAt(i) >= stableBelow) {
+                return Normalizer.isNormalized(value, form) ? value : Normalizer.normalize(value, form);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Вычисляет хэш ключа строки, подготовленной {@link #prepare(String)}.
+     * @param prepared Подготовленная строка.
+     * @return Хэш, одинаковый для эквивалентных строк.
+     */
+    int hash(String prepared) {
+        int end = end(prepared);
+        int hash = 1;
+        for (int i = begin(prepared, end); i < end; ) {
+            int codePoint = prepared.codePointAt(i);
+            hash = 31 * hash + fold(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Сравнивает ключи двух строк, подготовленных {@link #prepare(String)}.
+     * @param left Первая подготовленная строка.
+     * @param right Вторая подготовленная строка.
+     * @return {@code true}, если строки эквивалентны по заданным правилам.
+     */
+    boolean equivalent(String left, String right) {
+        int leftEnd = end(left);
+        int rightEnd = end(right);
+        int i = begin(left, leftEnd);
+        int j = begin(right, rightEnd);
+
+        while (i < leftEnd && j < rightEnd) {
+            int leftPoint = left.codePointAt(i);
+            int rightPoint = right.codePointAt(j);
+            if (leftPoint != rightPoint && fold(leftPoint) != fold(rightPoint)) {
+                return false;
+            }
+            i += Character.charCount(leftPoint);
+            j += Character.charCount(rightPoint);
+        }
+        return i == leftEnd && j == rightEnd;
+    }
+
+    /**
+     * Проверяет эквивалентность двух произвольных строк.
+     * @param left Первая строка.
+     * @param right Вторая строка.
+     * @return {@code true}, если строки эквивалентны по заданным правилам.
+     */
+    public boolean matches(String left, String right) {
+        return equivalent(prepare(left), prepare(right));
+    }
+
+    private int fold(int codePoint) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(codePoint)) : codePoint;
+    }
+
+    private int begin(String value, int end) {
+        int begin = 0;
+        if (stripWhitespace) {
+            while (begin < end && Character.isWhitespace(value.codePointAt(begin))) {
+                begin += Character.charCount(value.codePointAt(begin));
+            }
+        }
+        return begin;
+    }
+
+    private int end(String value) {
+        int end = value.length();
+        if (stripWhitespace) {
+            while (end > 0 && Character.isWhitespace(value.codePointBefore(end))) {
+                end -= Character.charCount(value.codePointBefore(end));
+            }
+        }
+        return end;
+    }
+}
@@ -2,10 +2,23 @@ package ru.duplicates;
 
 import ru.duplicates.exceptions.AlreadyExistsException;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0) {
+            runFileMode(args);
+            return;
+        }
+
         try (Scanner scanner = new Scanner(System.in)) {
             DuplicateInputCheck inputCheck = new DuplicateInputCheck();
             String input;
@@ -32,4 +45,60 @@ public class Main {
             System.err.println("Введен ранее под номером: " + ex.getPosition());
         }
     }
+
+    /**
+     * Неинтерактивный режим: {@code --file <путь|-> [--report <путь>]}.
+     * Читает файл (или стандартный ввод, если указан {@code -}), записывает отчет о повторах
+     * в файл или на стандартный вывод и сообщает скорость обработки в стандартный поток ошибок.
+     * При неверных аргументах завершается с кодом 2, при ошибке ввода-вывода — с кодом 1.
+     */
+    private static void runFileMode(String[] args) {
+        String source = null;
+        String report = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--file") && i + 1 < args.length) {
+                source = args[++i];
+            } else if (args[i].equals("--report") && i + 1 < args.length) {
+                report = args[++i];
+            } else {
+                source = null;
+                break;
+            }
+        }
+        if (source == null) {
+            System.err.println("Использование: --file <путь|-> [--report <путь>]");
+            System.exit(2);
+        }
+
+        FileDuplicateScanner scanner = new FileDuplicateScanner();
+        long start = System.nanoTime();
+        try {
+            if (source.equals("-")) {
+                scanner.scan(Channels.newChannel(System.in));
+            } else {
+                scanner.scan(Path.of(source));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Writer out = report == null
+                    ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                    : Files.newBufferedWriter(Path.of(report), StandardCharsets.UTF_8);
+            try {
+                scanner.writeReport(out);
+            } finally {
+                if (report != null) {
+                    out.close();
+                }
+            }
+
+            double megabytes = scanner.getByteCount() / (1024.0 * 1024.0);
+            System.err.printf("Строк: %d, уникальных: %d, повторов: %d%n",
+                    scanner.getLineCount(), scanner.getUniqueCount(), scanner.getRepeatCount());
+            System.err.printf("Обработано %.1f МБ за %.2f с (%.1f МБ/с)%n",
+                    megabytes, seconds, seconds > 0 ? megabytes / seconds : 0);
+        } catch (IOException e) {
+            System.err.println("Ошибка ввода-вывода: " + e.getMessage());
+            System.exit(1);
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package ru.duplicates;
+
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+/**
+ * Проверка ввода на дублирование с настраиваемым приведением ключей, см. {@link KeyNormalizer}.
+ * Например, строки {@code "Иванов"} и {@code "  иванов "} считаются одним значением,
+ * если включены игнорирование регистра и пробелов по краям.
+ * <p>
+ * История — хэш-таблица с открытой адресацией, хэш и сравнение в которой вычисляются
+ * по правилам приведения, поэтому для поиска не создаются ни нормализованные копии строки,
+ * ни объекты-обертки ключа. В {@link AlreadyExistsException} передается исходная введенная строка.
+ */
+public class NormalizedDuplicateInputCheck implements DuplicateCheck {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** Правила приведения ключей. */
+    private final KeyNormalizer normalizer;
+
+    /** Строки в истории (в форме нормализации Юникода), {@code null} — пустой слот. */
+    private String[] keys;
+
+    /** Хэш ключа для каждого слота. */
+    private int[] hashes;
+
+    /** Порядковый номер для каждого слота. */
+    private int[] positions;
+
+    /** Количество строк в истории. */
+    private int size;
+
+    /** Счетчик, отслеживающий текущий порядковый номер ввода. */
+    private int counter;
+
+    /**
+     * Создает проверку с заданными правилами приведения ключей.
+     * @param normalizer Правила приведения.
+     */
+    public NormalizedDuplicateInputCheck(KeyNormalizer normalizer) {
+        this.normalizer = normalizer;
+        keys = new String[16];
+        hashes = new int[16];
+        positions = new int[16];
+        counter = 1;
+    }
+
+    /**
+     * Проверяет строку без выбрасывания исключения.
+     * @param input Строка, вводимая пользователем.
+     * @return {@link #NEW_INPUT}, если эквивалентная строка не встречалась, иначе номер ее первого ввода.
+     */
+    @Override
+    public int checkInput(String input) {
+        String prepared = normalizer.prepare(input);
+        int hash = normalizer.hash(prepared);
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && normalizer.equivalent(keys[slot], prepared)) {
+                return positions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = prepared;
+        hashes[slot] = hash;
+        positions[slot] = counter;
+        counter++;
+
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash();
+        }
+        return NEW_INPUT;
+    }
+
+    /**
+     * Возвращает текущий порядковый номер, который будет присвоен следующему вводимому значению.
+     * @return Текущее значение счетчика.
+     */
+    @Override
+    public int getCounter() {
+        return counter;
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldPositions = positions;
+
+        int capacity = oldKeys.length << 1;
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        positions = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package ru.duplicates;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверка ввода на дублирование с историей на диске, переживающей перезапуск процесса.
+ * <p>
+ * История хранится в каталоге в файлах, отображенных в память:
+ * <ul>
+ *     <li>{@code history.dat} — журнал строк, только дописывается: запись состоит из длины (int)
+ *     и байтов UTF-8; записи не пересекают границу сегментов по 64 МБ;</li>
+ *     <li>{@code history.idx} — заголовок (4 КБ): поколение таблицы, количество строк,
+ *     длина журнала и незавершенный слот;</li>
+ *     <li>{@code history.idx.<поколение>} — хэш-таблица с открытой адресацией,
+ *     слот занимает 16 байт: смещение записи в журнале плюс один, хэш строки и ее номер.</li>
+ * </ul>
+ * Открытие существующей истории не перечитывает журнал: таблица уже готова на диске,
+ * поэтому перезапуск занимает время отображения файлов, а номера сохраняются.
+ * <p>
+ * Новая строка добавляется в порядке, устойчивом к аварийному завершению процесса:
+ * запись в журнал, пометка слота как незавершенного в заголовке, заполнение слота,
+ * фиксация длины журнала и количества строк. При открытии незавершенный слот очищается.
+ * Таблица увеличивается через запись файла следующего поколения и переключение поколения
+ * в заголовке одной записью int; отображенные файлы не переименовываются и не заменяются.
+ * Файлы прежних поколений удаляются сразу, а если ОС не дает удалить еще отображенный
+ * файл (Windows), — при следующем открытии.
+ * Данные попадают в страничный кэш ОС сразу; для защиты от сбоя питания нужен {@link #flush()}.
+ * Класс не потокобезопасен; каталог должен использоваться одним процессом.
+ */
+public class PersistentDuplicateInputCheck implements DuplicateCheck, Closeable {
+
+    private static final String INDEX_FILE = "history.idx";
+    private static final String HEADER_TEMP_FILE = "history.idx.tmp";
+    private static final String DATA_FILE = "history.dat";
+
+    /** Сигнатура файла индекса: "DUPLHIST". */
+    private static final long MAGIC = 0x4455504C48495354L;
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 4096;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int GENERATION_OFFSET = 12;
+    private static final int SIZE_OFFSET = 16;
+    private static final int PENDING_SLOT_OFFSET = 20;
+    private static final int DATA_LENGTH_OFFSET = 24;
+
+    private static final int SLOT_SIZE = 16;
+    private static final int INDEX_SEGMENT_BITS = 30;
+    private static final int DATA_SEGMENT_BITS = 26;
+    private static final int DATA_SEGMENT_SIZE = 1 << DATA_SEGMENT_BITS;
+
+    private static final int INITIAL_SLOTS = 1 << 10;
+    private static final int MAX_SLOTS = 1 << 30;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Path directory;
+    private final Path indexPath;
+
+    private final FileChannel dataChannel;
+
+    /** Отображенный заголовок индекса. */
+    private MappedByteBuffer header;
+
+    /** Поколение текущей таблицы. */
+    private int generation;
+
+    /** Сегменты файла таблицы. */
+    private MappedByteBuffer[] indexSegments;
+
+    /** Отображенные сегменты журнала строк. */
+    private final List<MappedByteBuffer> dataSegments;
+
+    private int slotCount;
+    private int slotMask;
+
+    /** Количество зафиксированных строк; следующий номер равен {@code size + 1}. */
+    private int size;
+
+    /** Зафиксированная длина журнала в байтах. */
+    private long dataLength;
+
+    /** Буфер для кодирования строки перед копированием в журнал. */
+    private byte[] scratch;
+
+    /** Закрыта ли история; после закрытия ссылки на отображения сброшены. */
+    private boolean closed;
+
+    private PersistentDuplicateInputCheck(Path directory) throws IOException {
+        this.directory = directory;
+        indexPath = directory.resolve(INDEX_FILE);
+        dataSegments = new ArrayList<>();
+        scratch = new byte[256];
+
+        Path dataPath = directory.resolve(DATA_FILE);
+        Files.deleteIfExists(directory.resolve(HEADER_TEMP_FILE));
+        if (Files.exists(indexPath)) {
+            openIndex();
+            recover();
+        } else if (Files.exists(dataPath)) {
+            throw new IOException("Журнал истории есть, а файл индекса отсутствует: " + indexPath);
+        } else {
+            createIndex();
+        }
+        deleteStaleTables();
+
+        dataChannel = FileChannel.open(dataPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        for (long offset = 0; offset < dataLength; offset += DATA_SEGMENT_SIZE) {
+            mapDataSegment();
+        }
+    }
+
+    /**
+     * Открывает историю в каталоге или создает новую, если каталог пуст.
+     * @param directory Каталог с файлами истории; создается при отсутствии.
+     * @return Проверка, продолжающая нумерацию с сохраненного места.
+     * @throws IOException Если файлы не удалось открыть или они повреждены.
+     */
+    public static PersistentDuplicateInputCheck open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new PersistentDuplicateInputCheck(directory);
+    }
+
+    /**
+     * Проверяет строку без выбрасывания исключения; новая строка сразу записывается в историю на диске.
+     * @param input Строка, вводимая пользователем.
+     * @return {@link #NEW_INPUT}, если строка новая, иначе номер ее первого ввода.
+     * @throws UncheckedIOException Если не удалось расширить файлы истории.
+     * @throws IllegalStateException Если история закрыта.
+     */
+    @Override
+    public int checkInput(String input) {
+        ensureOpen();
+        int hash = (int) Utf8.hash(input);
+        int slot = hash & slotMask;
+
+        long reference;
+        while ((reference = slotReference(slot)) != 0) {
+            if (slotHash(slot) == hash && keyEquals(reference - 1, input)) {
+                return slotPosition(slot);
+            }
+            slot = (slot + 1) & slotMask;
+        }
+
+        try {
+            if (size + 1 > (int) (slotCount * LOAD_FACTOR)) {
+                resize();
+                slot = findEmptySlot(hash);
+            }
+            append(input, hash, slot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать историю ввода", e);
+        }
+        return NEW_INPUT;
+    }
+
+    /**
+     * Возвращает текущий порядковый номер, который будет присвоен следующему вводимому значению.
+     * @return Текущее значение счетчика.
+     * @throws IllegalStateException Если история закрыта.
+     */
+    @Override
+    public int getCounter() {
+        ensureOpen();
+        return size + 1;
+    }
+
+    /**
+     * Принудительно записывает изменения на диск.
+     * После возврата история переживает не только падение процесса, но и сбой ОС.
+     * @throws IllegalStateException Если история закрыта.
+     */
+    public void flush() {
+        ensureOpen();
+        for (MappedByteBuffer segment : dataSegments) {
+            segment.force();
+        }
+        for (MappedByteBuffer segment : indexSegments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    /**
+     * Записывает изменения на диск и закрывает файлы истории. Повторный вызов ничего не делает.
+     * @throws IOException Если закрыть файлы не удалось.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        // Отображения освобождает сборщик мусора; файлы после закрытия не переименовываются.
+        dataSegments.clear();
+        indexSegments = new MappedByteBuffer[0];
+        header = null;
+        try {
+            dataChannel.force(true);
+        } finally {
+            dataChannel.close();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("История ввода закрыта");
+        }
+    }
+
+    private void append(String input, int hash, int slot) throws IOException {
+        int length = Utf8.encodedLength(input);
+        if (length > DATA_SEGMENT_SIZE - Integer.BYTES) {
+            throw new IllegalArgumentException("Строка слишком длинная для хранения в истории");
+        }
+
+        long offset = dataLength;
+        if ((offset & (DATA_SEGMENT_SIZE - 1)) + Integer.BYTES + length > DATA_SEGMENT_SIZE) {
+            offset = (offset | (DATA_SEGMENT_SIZE - 1)) + 1;
+        }
+        while ((offset >>> DATA_SEGMENT_BITS) >= dataSegments.size()) {
+            mapDataSegment();
+        }
+
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length << 1)];
+        }
+        Utf8.encode(input, scratch, 0);
+
+        MappedByteBuffer segment = dataSegments.get((int) (offset >>> DATA_SEGMENT_BITS));
+        int local = (int) (offset & (DATA_SEGMENT_SIZE - 1));
+        segment.putInt(local, length);
+        segment.put(local + Integer.BYTES, scratch, 0, length);
+
+        header.putInt(PENDING_SLOT_OFFSET, slot);
+        writeSlot(slot, offset + 1, hash, size + 1);
+
+        dataLength = offset + Integer.BYTES + length;
+        size++;
+        header.putLong(DATA_LENGTH_OFFSET, dataLength);
+        header.putInt(SIZE_OFFSET, size);
+        header.putInt(PENDING_SLOT_OFFSET, -1);
+    }
+
+    /**
+     * Восстанавливает согласованность после аварийного завершения: если добавление строки
+     * не было зафиксировано, ее слот очищается. Незафиксированный хвост журнала будет перезаписан.
+     */
+    private void recover() {
+        int pendingSlot = header.getInt(PENDING_SLOT_OFFSET);
+        if (pendingSlot < 0) {
+            return;
+        }
+
+        if (slotReference(pendingSlot) != 0 && slotPosition(pendingSlot) > size) {
+            writeSlot(pendingSlot, 0, 0, 0);
+        }
+        header.putInt(PENDING_SLOT_OFFSET, -1);
+    }
+
+    /**
+     * Увеличивает таблицу вдвое: новая таблица строится в файле следующего поколения
+     * и записывается на диск, после чего поколение в заголовке переключается на нее.
+     * Состояние в памяти переключается только после записи заголовка.
+     */
+    private void resize() throws IOException {
+        int newSlotCount = slotCount << 1;
+        if (newSlotCount > MAX_SLOTS || newSlotCount <= 0) {
+            throw new IllegalStateException("Превышена максимальная вместимость истории");
+        }
+
+        int newGeneration = generation + 1;
+        Path newTablePath = tablePath(newGeneration);
+        Files.deleteIfExists(newTablePath);
+        MappedByteBuffer[] newSegments;
+        try (FileChannel channel = FileChannel.open(newTablePath, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            newSegments = mapTable(channel, newSlotCount);
+        }
+
+        int newMask = newSlotCount - 1;
+        for (int oldSlot = 0; oldSlot < slotCount; oldSlot++) {
+            long reference = slotReference(oldSlot);
+            if (reference != 0) {
+                int hash = slotHash(oldSlot);
+                int slot = hash & newMask;
+                while (segmentOf(newSegments, slotOffset(slot)).getLong(slotLocal(slotOffset(slot))) != 0) {
+                    slot = (slot + 1) & newMask;
+                }
+                writeSlot(newSegments, slot, reference, hash, slotPosition(oldSlot));
+            }
+        }
+        for (MappedByteBuffer segment : newSegments) {
+            segment.force();
+        }
+
+        header.putInt(GENERATION_OFFSET, newGeneration);
+        header.force();
+
+        Path oldTablePath = tablePath(generation);
+        generation = newGeneration;
+        indexSegments = newSegments;
+        setSlotCount(newSlotCount);
+        deleteTable(oldTablePath);
+    }
+
+    private void createIndex() throws IOException {
+        generation = 0;
+        Files.deleteIfExists(tablePath(generation));
+        try (FileChannel channel = FileChannel.open(tablePath(generation), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            indexSegments = mapTable(channel, INITIAL_SLOTS);
+        }
+        setSlotCount(INITIAL_SLOTS);
+        size = 0;
+        dataLength = 0;
+
+        // Заголовок появляется атомарно и уже заполненным: без него каталог считается пустым.
+        Path tempPath = directory.resolve(HEADER_TEMP_FILE);
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            writeHeader(buffer);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+            channel.force(true);
+        }
+        Files.move(tempPath, indexPath, StandardCopyOption.ATOMIC_MOVE);
+        header = mapHeader();
+    }
+
+    private void openIndex() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Файл индекса истории поврежден: " + indexPath);
+        }
+        if (buffer.getLong(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Неизвестный формат файла истории: " + indexPath);
+        }
+
+        generation = buffer.getInt(GENERATION_OFFSET);
+        Path tablePath = tablePath(generation);
+        if (generation < 0 || !Files.exists(tablePath)) {
+            throw new IOException("Файл таблицы истории отсутствует: " + tablePath);
+        }
+        try (FileChannel channel = FileChannel.open(tablePath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long slots = channel.size() / SLOT_SIZE;
+            if (channel.size() % SLOT_SIZE != 0 || slots > MAX_SLOTS || Long.bitCount(slots) != 1) {
+                throw new IOException("Файл таблицы истории поврежден: " + tablePath);
+            }
+            indexSegments = mapTable(channel, (int) slots);
+            setSlotCount((int) slots);
+        }
+        header = mapHeader();
+        size = header.getInt(SIZE_OFFSET);
+        dataLength = header.getLong(DATA_LENGTH_OFFSET);
+    }
+
+    private MappedByteBuffer mapHeader() throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        }
+    }
+
+    /** Удаляет файлы таблиц прежних поколений, оставшиеся после сбоя или неудачного удаления. */
+    private void deleteStaleTables() throws IOException {
+        String current = tablePath(generation).getFileName().toString();
+        try (DirectoryStream<Path> tables = Files.newDirectoryStream(directory, INDEX_FILE + ".*")) {
+            for (Path table : tables) {
+                String name = table.getFileName().toString();
+                if (!name.equals(current) && name.substring(INDEX_FILE.length() + 1).chars().allMatch(Character::isDigit)) {
+                    deleteTable(table);
+                }
+            }
+        }
+    }
+
+    /**
+     * Удаляет файл прежней таблицы. Windows не удаляет отображенный файл, пока отображение
+     * не освобождено сборщиком мусора; тогда файл удаляется при следующем открытии.
+     */
+    private static void deleteTable(Path table) {
+        try {
+            Files.deleteIfExists(table);
+        } catch (IOException e) {
+            // Файл еще отображен: он будет удален в deleteStaleTables при следующем открытии.
+        }
+    }
+
+    private Path tablePath(int tableGeneration) {
+        return directory.resolve(INDEX_FILE + "." + tableGeneration);
+    }
+
+    private void writeHeader(ByteBuffer buffer) {
+        buffer.putLong(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(GENERATION_OFFSET, generation);
+        buffer.putInt(SIZE_OFFSET, size);
+        buffer.putInt(PENDING_SLOT_OFFSET, -1);
+        buffer.putLong(DATA_LENGTH_OFFSET, dataLength);
+    }
+
+    private void setSlotCount(int slots) {
+        slotCount = slots;
+        slotMask = slots - 1;
+    }
+
+    private static MappedByteBuffer[] mapTable(FileChannel channel, int slots) throws IOException {
+        long fileSize = (long) slots * SLOT_SIZE;
+        long segmentSize = 1L << INDEX_SEGMENT_BITS;
+        int segmentCount = (int) ((fileSize + segmentSize - 1) >>> INDEX_SEGMENT_BITS);
+
+        MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long start = i * segmentSize;
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(segmentSize, fileSize - start));
+        }
+        return segments;
+    }
+
+    private void mapDataSegment() throws IOException {
+        long start = (long) dataSegments.size() << DATA_SEGMENT_BITS;
+        dataSegments.add(dataChannel.map(FileChannel.MapMode.READ_WRITE, start, DATA_SEGMENT_SIZE));
+    }
+
+    private int findEmptySlot(int hash) {
+        int slot = hash & slotMask;
+        while (slotReference(slot) != 0) {
+            slot = (slot + 1) & slotMask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(long offset, String input) {
+        MappedByteBuffer segment = dataSegments.get((int) (offset >>> DATA_SEGMENT_BITS));
+        int local = (int) (offset & (DATA_SEGMENT_SIZE - 1));
+        return Utf8.equals(input, segment, local + Integer.BYTES, segment.getInt(local));
+    }
+
+    private static long slotOffset(int slot) {
+        return (long) slot * SLOT_SIZE;
+    }
+
+    private MappedByteBuffer slotSegment(long slotOffset) {
+        return segmentOf(indexSegments, slotOffset);
+    }
+
+    private static MappedByteBuffer segmentOf(MappedByteBuffer[] segments, long slotOffset) {
+        return segments[(int) (slotOffset >>> INDEX_SEGMENT_BITS)];
+    }
+
+    private static int slotLocal(long slotOffset) {
+        return (int) (slotOffset & ((1L << INDEX_SEGMENT_BITS) - 1));
+    }
+
+    private long slotReference(int slot) {
+        long offset = slotOffset(slot);
+        return slotSegment(offset).getLong(slotLocal(offset));
+    }
+
+    private int slotHash(int slot) {
+        long offset = slotOffset(slot);
+        return slotSegment(offset).getInt(slotLocal(offset) + 8);
+    }
+
+    private int slotPosition(int slot) {
+        long offset = slotOffset(slot);
+        return slotSegment(offset).getInt(slotLocal(offset) + 12);
+    }
+
+    /** Заполняет слот; ссылка на журнал записывается последней, так как ее ненулевое значение занимает слот. */
+    private void writeSlot(int slot, long reference, int hash, int position) {
+        writeSlot(indexSegments, slot, reference, hash, position);
+    }
+
+    private static void writeSlot(MappedByteBuffer[] segments, int slot, long reference, int hash, int position) {
+        long offset = slotOffset(slot);
+        MappedByteBuffer segment = segmentOf(segments, offset);
+        int local = slotLocal(offset);
+        segment.putInt(local + 8, hash);
+        segment.putInt(local + 12, position);
+        segment.putLong(local, reference);
+    }
+}
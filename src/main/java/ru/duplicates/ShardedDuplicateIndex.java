@@ -0,0 +1,125 @@
+package ru.duplicates;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Набор шардов истории одного узла, распределяющий строки по {@link DuplicateShard}.
+ * <p>
+ * Поддерживаются две схемы работы нескольких узлов:
+ * <ul>
+ *     <li>каждый узел обрабатывает свой сегмент входа с глобальными позициями, ведет все шарды,
+ *     а затем шарды узлов попарно сливаются ({@link #merge(ShardedDuplicateIndex)});</li>
+ *     <li>каждый узел получает только строки своего шарда ({@link DuplicateShard#shardOf(String, int)}),
+ *     и слияние не требуется вовсе.</li>
+ * </ul>
+ * Правила согласования позиций описаны в {@link DuplicateShard}.
+ */
+public class ShardedDuplicateIndex {
+
+    /** Шарды узла по номерам. */
+    private final DuplicateShard[] shards;
+
+    /**
+     * Создает пустой набор шардов.
+     * @param shardCount Количество шардов.
+     * @throws IllegalArgumentException Если {@code shardCount} меньше 1.
+     */
+    public ShardedDuplicateIndex(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Количество шардов должно быть положительным");
+        }
+        shards = new DuplicateShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new DuplicateShard(i, shardCount);
+        }
+    }
+
+    /**
+     * Проверяет вхождение строки с глобальной позицией в соответствующем шарде.
+     * @param value Строка.
+     * @param position Глобальная позиция вхождения (больше 0).
+     * @return {@link DuplicateCheck#NEW_INPUT} или позиция более раннего вхождения.
+     */
+    public int checkInput(String value, int position) {
+        return shards[DuplicateShard.shardOf(value, shards.length)].checkInput(value, position);
+    }
+
+    /**
+     * Возвращает и забывает вхождения всех шардов, вытесненные более ранней позицией
+     * (см. {@link DuplicateShard#drainDisplaced()}).
+     * @return Дубликаты, упорядоченные по позиции.
+     */
+    public List<Duplicate> drainDisplaced() {
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (DuplicateShard shard : shards) {
+            duplicates.addAll(shard.drainDisplaced());
+        }
+        duplicates.sort((left, right) -> Integer.compare(left.index(), right.index()));
+        return duplicates;
+    }
+
+    /**
+     * Возвращает позицию первого вхождения строки.
+     * @param value Строка.
+     * @return Позиция или {@link DuplicateCheck#NEW_INPUT}, если строка не встречалась.
+     */
+    public int firstPosition(String value) {
+        return shards[DuplicateShard.shardOf(value, shards.length)].firstPosition(value);
+    }
+
+    /**
+     * Возвращает шард по номеру, например для сериализации и передачи на другой узел.
+     * @param shardIndex Номер шарда.
+     * @return Шард.
+     */
+    public DuplicateShard shard(int shardIndex) {
+        return shards[shardIndex];
+    }
+
+    /**
+     * Заменяет шард, полученный с другого узла, слиянием с ним.
+     * @param shard Шард с тем же общим количеством шардов.
+     * @return Вхождения, оказавшиеся дубликатами после слияния.
+     */
+    public List<Duplicate> merge(DuplicateShard shard) {
+        if (shard.getShardCount() != shards.length) {
+            throw new IllegalArgumentException("Количество шардов не совпадает: " + shard.getShardCount());
+        }
+        return shards[shard.getShardIndex()].merge(shard);
+    }
+
+    /**
+     * Сливает все шарды другого узла с шардами этого узла.
+     * @param other Набор шардов с тем же количеством шардов.
+     * @return Вхождения, оказавшиеся дубликатами, упорядоченные по позиции.
+     */
+    public List<Duplicate> merge(ShardedDuplicateIndex other) {
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (DuplicateShard shard : other.shards) {
+            duplicates.addAll(merge(shard));
+        }
+        duplicates.sort((left, right) -> Integer.compare(left.index(), right.index()));
+        return duplicates;
+    }
+
+    /**
+     * Возвращает количество шардов.
+     * @return Количество шардов.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Возвращает количество различных строк во всех шардах.
+     * @return Размер истории.
+     */
+    public int size() {
+        int size = 0;
+        for (DuplicateShard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,315 @@
+package ru.duplicates;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Вспомогательные методы для работы со строками в виде байтов UTF-8 без промежуточных копий.
+ * <p>
+ * Строка кодируется посимвольно «на лету»: хэш и сравнение с сохраненными байтами
+ * вычисляются без создания массива {@code byte[]}. Непарные суррогаты кодируются тремя
+ * байтами так же, как обычные символы (обобщенный UTF-8), поэтому кодирование взаимно
+ * однозначно и разные строки никогда не совпадают после кодирования.
+ */
+final class Utf8 {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private Utf8() {
+    }
+
+    /**
+     * Вычисляет 64-битный хэш байтового представления строки.
+     * Результат совпадает с {@link #hash(byte[], int, int)} для закодированной строки.
+     * @param text Исходная строка.
+     * @return Хэш байтов UTF-8.
+     */
+    static long hash(String text) {
+        long hash = FNV_OFFSET;
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            char symbol = text.charAt(i);
+            if (symbol < 0x80) {
+                hash = (hash ^ symbol) * FNV_PRIME;
+            } else if (symbol < 0x800) {
+                hash = (hash ^ (0xC0 | (symbol >> 6))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | (symbol & 0x3F))) * FNV_PRIME;
+            } else if (isSurrogatePair(text, i)) {
+                int codePoint = Character.toCodePoint(symbol, text.charAt(++i));
+                hash = (hash ^ (0xF0 | (codePoint >> 18))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | ((codePoint >> 12) & 0x3F))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | ((codePoint >> 6) & 0x3F))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | (codePoint & 0x3F))) * FNV_PRIME;
+            } else {
+                hash = (hash ^ (0xE0 | (symbol >> 12))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | ((symbol >> 6) & 0x3F))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | (symbol & 0x3F))) * FNV_PRIME;
+            }
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Вычисляет 64-битный хэш фрагмента массива байтов.
+     * @param data Массив байтов.
+     * @param offset Начало фрагмента.
+     * @param length Длина фрагмента.
+     * @return Хэш фрагмента.
+     */
+    static long hash(byte[] data, int offset, int length) {
+        long hash = FNV_OFFSET;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = (hash ^ (data[i] & 0xFF)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Вычисляет 64-битный хэш фрагмента буфера. Позиция буфера не изменяется.
+     * @param data Буфер (в том числе прямой или отображенный в память).
+     * @param offset Абсолютное начало фрагмента.
+     * @param length Длина фрагмента.
+     * @return Хэш фрагмента.
+     */
+    static long hash(ByteBuffer data, int offset, int length) {
+        long hash = FNV_OFFSET;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = (hash ^ (data.get(i) & 0xFF)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Возвращает длину строки в байтах UTF-8.
+     * @param text Исходная строка.
+     * @return Количество байтов, которое запишет {@link #encode(String, byte[], int)}.
+     */
+    static int encodedLength(String text) {
+        int length = text.length();
+        int bytes = 0;
+
+        for (int i = 0; i < length; i++) {
+            char symbol = text.charAt(i);
+            if (symbol < 0x80) {
+                bytes += 1;
+            } else if (symbol < 0x800) {
+                bytes += 2;
+            } else if (isSurrogatePair(text, i)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Записывает строку в массив в кодировке UTF-8.
+     * @param text Исходная строка.
+     * @param target Массив назначения, в котором достаточно места.
+     * @param offset Позиция начала записи.
+     * @return Позиция сразу после последнего записанного байта.
+     */
+    static int encode(String text, byte[] target, int offset) {
+        int length = text.length();
+        int position = offset;
+
+        for (int i = 0; i < length; i++) {
+            char symbol = text.charAt(i);
+            if (symbol < 0x80) {
+                target[position++] = (byte) symbol;
+            } else if (symbol < 0x800) {
+                target[position++] = (byte) (0xC0 | (symbol >> 6));
+                target[position++] = (byte) (0x80 | (symbol & 0x3F));
+            } else if (isSurrogatePair(text, i)) {
+                int codePoint = Character.toCodePoint(symbol, text.charAt(++i));
+                target[position++] = (byte) (0xF0 | (codePoint >> 18));
+                target[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                target[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                target[position++] = (byte) (0xE0 | (symbol >> 12));
+                target[position++] = (byte) (0x80 | ((symbol >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (symbol & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Сравнивает строку с сохраненными байтами без кодирования строки в отдельный массив.
+     * @param text Строка для сравнения.
+     * @param data Массив с байтами UTF-8.
+     * @param offset Начало сохраненного значения.
+     * @param length Длина сохраненного значения в байтах.
+     * @return {@code true}, если байты являются кодировкой строки.
+     */
+    static boolean equals(String text, byte[] data, int offset, int length) {
+        int textLength = text.length();
+        int position = offset;
+        int end = offset + length;
+
+        for (int i = 0; i < textLength; i++) {
+            char symbol = text.charAt(i);
+            if (symbol < 0x80) {
+                if (position >= end || data[position++] != (byte) symbol) {
+                    return false;
+                }
+            } else if (symbol < 0x800) {
+                if (position + 2 > end
+                        || data[position++] != (byte) (0xC0 | (symbol >> 6))
+                        || data[position++] != (byte) (0x80 | (symbol & 0x3F))) {
+                    return false;
+                }
+            } else if (isSurrogatePair(text, i)) {
+                int codePoint = Character.toCodePoint(symbol, text.charAt(++i));
+                if (position + 4 > end
+                        || data[position++] != (byte) (0xF0 | (codePoint >> 18))
+                        || data[position++] != (byte) (0x80 | ((codePoint >> 12) & 0x3F))
+                        || data[position++] != (byte) (0x80 | ((codePoint >> 6) & 0x3F))
+                        || data[position++] != (byte) (0x80 | (codePoint & 0x3F))) {
+                    return false;
+                }
+            } else {
+                if (position + 3 > end
+                        || data[position++] != (byte) (0xE0 | (symbol >> 12))
+                        || data[position++] != (byte) (0x80 | ((symbol >> 6) & 0x3F))
+                        || data[position++] != (byte) (0x80 | (symbol & 0x3F))) {
+                    return false;
+                }
+            }
+        }
+        return position == end;
+    }
+
+    /**
+     * Сравнивает строку с байтами в буфере без кодирования строки в отдельный массив.
+     * @param text Строка для сравнения.
+     * @param data Буфер с байтами UTF-8 (в том числе отображенный в память).
+     * @param offset Абсолютное начало сохраненного значения.
+     * @param length Длина сохраненного значения в байтах.
+     * @return {@code true}, если байты являются кодировкой строки.
+     */
+    static boolean equals(String text, ByteBuffer data, int offset, int length) {
+        int textLength = text.length();
+        int position = offset;
+        int end = offset + length;
+
+        for (int i = 0; i < textLength; i++) {
+            char symbol = text.charAt(i);
+            if (symbol < 0x80) {
+                if (position >= end || data.get(position++) != (byte) symbol) {
+                    return false;
+                }
+            } else if (symbol < 0x800) {
+                if (position + 2 > end
+                        || data.get(position++) != (byte) (0xC0 | (symbol >> 6))
+                        || data.get(position++) != (byte) (0x80 | (symbol & 0x3F))) {
+                    return false;
+                }
+            } else if (isSurrogatePair(text, i)) {
+                int codePoint = Character.toCodePoint(symbol, text.charAt(++i));
+                if (position + 4 > end
+                        || data.get(position++) != (byte) (0xF0 | (codePoint >> 18))
+                        || data.get(position++) != (byte) (0x80 | ((codePoint >> 12) & 0x3F))
+                        || data.get(position++) != (byte) (0x80 | ((codePoint >> 6) & 0x3F))
+                        || data.get(position++) != (byte) (0x80 | (codePoint & 0x3F))) {
+                    return false;
+                }
+            } else {
+                if (position + 3 > end
+                        || data.get(position++) != (byte) (0xE0 | (symbol >> 12))
+                        || data.get(position++) != (byte) (0x80 | ((symbol >> 6) & 0x3F))
+                        || data.get(position++) != (byte) (0x80 | (symbol & 0x3F))) {
+                    return false;
+                }
+            }
+        }
+        return position == end;
+    }
+
+    /**
+     * Сравнивает фрагмент буфера с сохраненными байтами.
+     * @param source Буфер с искомым значением.
+     * @param sourceOffset Абсолютное начало искомого значения.
+     * @param sourceLength Длина искомого значения.
+     * @param data Массив с сохраненными байтами.
+     * @param offset Начало сохраненного значения.
+     * @param length Длина сохраненного значения.
+     * @return {@code true}, если фрагменты совпадают побайтно.
+     */
+    static boolean equals(ByteBuffer source, int sourceOffset, int sourceLength, byte[] data, int offset, int length) {
+        if (sourceLength != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (source.get(sourceOffset + i) != data[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Декодирует байты UTF-8, записанные {@link #encode(String, byte[], int)}, обратно в строку.
+     * Байты, не являющиеся корректной последовательностью (например, строки из внешнего файла),
+     * декодируются стандартным декодером с заменой ошибочных символов.
+     * @param data Массив байтов.
+     * @param offset Начало значения.
+     * @param length Длина значения в байтах.
+     * @return Исходная строка.
+     */
+    static String decode(byte[] data, int offset, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        int position = offset;
+        int end = offset + length;
+
+        while (position < end) {
+            int first = data[position++] & 0xFF;
+            int continuation = first < 0x80 ? 0 : first < 0xC0 ? -1 : first < 0xE0 ? 1 : first < 0xF0 ? 2 : first < 0xF8 ? 3 : -1;
+            if (continuation < 0 || position + continuation > end) {
+                return new String(data, offset, length, StandardCharsets.UTF_8);
+            }
+
+            int codePoint = continuation == 0 ? first : first & (0x3F >> continuation);
+            for (int i = 0; i < continuation; i++) {
+                int next = data[position++] & 0xFF;
+                if ((next & 0xC0) != 0x80) {
+                    return new String(data, offset, length, StandardCharsets.UTF_8);
+                }
+                codePoint = (codePoint << 6) | (next & 0x3F);
+            }
+
+            if (codePoint > Character.MAX_CODE_POINT) {
+                return new String(data, offset, length, StandardCharsets.UTF_8);
+            }
+            if (Character.isSupplementaryCodePoint(codePoint)) {
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            } else {
+                chars[count++] = (char) codePoint;
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static boolean isSurrogatePair(String text, int index) {
+        return Character.isHighSurrogate(text.charAt(index))
+                && index + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(index + 1));
+    }
+
+    /** Финальное перемешивание битов (MurmurHash3 fmix64), чтобы младшие биты хэша были равномерными. */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,203 @@
+package ru.duplicates;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Проверка ввода на дублирование в скользящем окне с ограниченным объемом памяти.
+ * <p>
+ * Поддерживаются два режима:
+ * <ul>
+ *     <li>по количеству ({@link #lastInputs(int)}) — помнятся только последние N новых строк;
+ *     часами служит счетчик порядковых номеров, строка с номером {@code p} забывается,
+ *     когда выдается номер {@code p + N};</li>
+ *     <li>по времени ({@link #lastDuration(Duration)}) — строка забывается, когда с момента
+ *     ее первого ввода прошло больше заданного времени.</li>
+ * </ul>
+ * Забытая строка при повторном вводе считается новой и получает новый номер.
+ * Повтор не продлевает срок жизни строки: отсчет идет от первого ввода.
+ * Строки хранятся в очереди в порядке добавления, поэтому вытеснение и поиск
+ * выполняются за амортизированное O(1).
+ */
+public class WindowedDuplicateInputCheck implements DuplicateCheck {
+
+    /** История ввода в пределах окна: строка и ее порядковый номер. */
+    private final Map<String, Integer> inputHistory;
+
+    /** Размер окна по количеству или 0 для режима по времени. */
+    private final int maxInputs;
+
+    /** Время жизни строки в наносекундах или 0 для режима по количеству. */
+    private final long ttlNanos;
+
+    /** Источник времени в наносекундах для режима по времени. */
+    private final LongSupplier clock;
+
+    /** Кольцевая очередь строк в порядке добавления. */
+    private String[] queueValues;
+
+    /** Время добавления строк очереди (только в режиме по времени). */
+    private long[] queueTimes;
+
+    /** Индекс самого старого элемента очереди. */
+    private int queueHead;
+
+    /** Количество элементов в очереди. */
+    private int queueSize;
+
+    /** Счетчик, отслеживающий текущий порядковый номер ввода. */
+    private int counter;
+
+    /** Количество вытесненных из окна строк. */
+    private long evictionCount;
+
+    private WindowedDuplicateInputCheck(int maxInputs, long ttlNanos, LongSupplier clock) {
+        this.maxInputs = maxInputs;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+
+        int capacity = maxInputs > 0 ? maxInputs : 16;
+        inputHistory = new HashMap<>();
+        queueValues = new String[capacity];
+        queueTimes = maxInputs > 0 ? null : new long[capacity];
+        counter = 1;
+    }
+
+    /**
+     * Создает проверку, которая помнит только последние {@code maxInputs} новых строк.
+     * @param maxInputs Размер окна в количестве строк.
+     * @return Новая проверка.
+     * @throws IllegalArgumentException Если {@code maxInputs} меньше 1.
+     */
+    public static WindowedDuplicateInputCheck lastInputs(int maxInputs) {
+        if (maxInputs < 1) {
+            throw new IllegalArgumentException("Размер окна должен быть положительным");
+        }
+        return new WindowedDuplicateInputCheck(maxInputs, 0, null);
+    }
+
+    /**
+     * Создает проверку, которая помнит строки, введенные впервые не более {@code ttl} назад.
+     * @param ttl Время жизни строки в истории.
+     * @return Новая проверка.
+     * @throws IllegalArgumentException Если {@code ttl} не положительно.
+     */
+    public static WindowedDuplicateInputCheck lastDuration(Duration ttl) {
+        return lastDuration(ttl, System::nanoTime);
+    }
+
+    /**
+     * Создает проверку по времени с заданным источником времени.
+     * @param ttl Время жизни строки в истории.
+     * @param nanoClock Монотонный источник времени в наносекундах.
+     * @return Новая проверка.
+     */
+    static WindowedDuplicateInputCheck lastDuration(Duration ttl, LongSupplier nanoClock) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Время жизни должно быть положительным");
+        }
+        return new WindowedDuplicateInputCheck(0, ttl.toNanos(), nanoClock);
+    }
+
+    /**
+     * Проверяет строку без выбрасывания исключения.
+     * Перед проверкой из истории удаляются строки, вышедшие за пределы окна по времени.
+     * @param input Строка, вводимая пользователем.
+     * @return {@link #NEW_INPUT}, если строка новая или была забыта, иначе номер ее первого ввода.
+     */
+    @Override
+    public int checkInput(String input) {
+        long now = 0;
+        if (maxInputs == 0) {
+            now = clock.getAsLong();
+            evictExpired(now);
+        }
+
+        Integer position = inputHistory.get(input);
+        if (position != null) {
+            return position;
+        }
+
+        if (maxInputs > 0 && queueSize == maxInputs) {
+            evictOldest();
+        }
+        inputHistory.put(input, counter);
+        enqueue(input, now);
+        counter++;
+        return NEW_INPUT;
+    }
+
+    /**
+     * Возвращает текущий порядковый номер, который будет присвоен следующему вводимому значению.
+     * @return Текущее значение счетчика.
+     */
+    @Override
+    public int getCounter() {
+        return counter;
+    }
+
+    /**
+     * Возвращает количество строк, вытесненных из окна с момента создания.
+     * @return Число вытеснений.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Возвращает количество строк, которые сейчас находятся в окне.
+     * В режиме по времени учитываются только вытеснения, выполненные при последнем вызове.
+     * @return Размер истории.
+     */
+    public int size() {
+        return queueSize;
+    }
+
+    private void evictExpired(long now) {
+        while (queueSize > 0 && now - queueTimes[queueHead] > ttlNanos) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        String value = queueValues[queueHead];
+        queueValues[queueHead] = null;
+        queueHead = (queueHead + 1) % queueValues.length;
+        queueSize--;
+
+        inputHistory.remove(value);
+        evictionCount++;
+    }
+
+    private void enqueue(String value, long now) {
+        if (queueSize == queueValues.length) {
+            growQueue();
+        }
+
+        int tail = (queueHead + queueSize) % queueValues.length;
+        queueValues[tail] = value;
+        if (queueTimes != null) {
+            queueTimes[tail] = now;
+        }
+        queueSize++;
+    }
+
+    /** Увеличивает очередь режима по времени вдвое, переписывая элементы с начала массива. */
+    private void growQueue() {
+        int capacity = queueValues.length;
+        String[] values = new String[capacity << 1];
+        long[] times = new long[capacity << 1];
+
+        for (int i = 0; i < queueSize; i++) {
+            int index = (queueHead + i) % capacity;
+            values[i] = queueValues[index];
+            times[i] = queueTimes[index];
+        }
+
+        queueValues = values;
+        queueTimes = times;
+        queueHead = 0;
+    }
+}
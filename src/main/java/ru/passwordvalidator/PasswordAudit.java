@@ -0,0 +1,291 @@
+package ru.passwordvalidator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Массовая проверка сохраненных паролей для аудита.
+ * Записи читаются потоком из текста в UTF-8: в каждой строке имя пользователя и пароль,
+ * разделенные первой табуляцией. Записи собираются в пакеты и проверяются политикой
+ * в пуле потоков с ограниченной очередью; если очередь заполнена, пакет проверяет
+ * читающий поток, поэтому в памяти одновременно находится не больше нескольких пакетов.
+ * Результаты не сохраняются: считаются только количества ошибок каждого вида.
+ * <p>
+ * Запуск: {@code java ru.passwordvalidator.PasswordAudit <input.tsv|-> [потоки]}.
+ */
+public final class PasswordAudit {
+
+    /** Количество записей в пакете. */
+    private static final int BATCH_SIZE = 1024;
+
+    /** Количество пакетов в очереди на каждый поток. */
+    private static final int QUEUED_BATCHES_PER_THREAD = 2;
+
+    private final PasswordPolicy policy;
+    private final int threads;
+
+    /**
+     * Создает аудит по правилам {@link PasswordValidator}.
+     * @param threads количество потоков проверки
+     */
+    public PasswordAudit(int threads) {
+        this(PasswordPolicy.defaultPolicy(), threads);
+    }
+
+    /**
+     * Создает аудит по заданной политике.
+     * @param policy политика проверки
+     * @param threads количество потоков проверки
+     */
+    public PasswordAudit(PasswordPolicy policy, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным");
+        }
+        this.policy = policy;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Использование: java ru.passwordvalidator.PasswordAudit <input.tsv|-> [потоки]");
+            System.exit(2);
+        }
+        PasswordAudit audit;
+        try {
+            int threads = args.length == 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            audit = new PasswordAudit(threads);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Неверное количество потоков: " + args[1]);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            Report report;
+            if ("-".equals(args[0])) {
+                report = audit.run(System.in);
+            } else {
+                try (InputStream in = Files.newInputStream(Path.of(args[0]))) {
+                    report = audit.run(in);
+                }
+            }
+            report.print(System.out);
+            System.err.printf("Записей: %d, время: %.2f с, %.0f записей/с%n",
+                    report.getRecordCount(), report.getElapsedNanos() / 1e9, report.getRecordsPerSecond());
+        } catch (IOException e) {
+            System.err.println("Ошибка ввода-вывода: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Проверяет все записи потока.
+     * @param in поток записей в UTF-8
+     * @return итоги аудита
+     * @throws IOException если поток не удалось прочитать или проверка прервана
+     */
+    public Report run(InputStream in) throws IOException {
+        return run(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    /**
+     * Проверяет все записи из источника строк.
+     * @param reader источник записей
+     * @return итоги аудита
+     * @throws IOException если источник не удалось прочитать или проверка прервана
+     */
+    public Report run(BufferedReader reader) throws IOException {
+        long start = System.nanoTime();
+        Report report = new Report(policy);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUED_BATCHES_PER_THREAD), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try {
+            String[] batch = new String[BATCH_SIZE];
+            int batchLength = 0;
+            String line;
+            while ((line = reader.readLine()) != null && failure.get() == null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                batch[batchLength++] = line;
+                if (batchLength == BATCH_SIZE) {
+                    submit(executor, batch, batchLength, report, failure);
+                    batch = new String[BATCH_SIZE];
+                    batchLength = 0;
+                }
+            }
+            if (batchLength > 0) {
+                submit(executor, batch, batchLength, report, failure);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Ожидание завершения оставшихся пакетов.
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Аудит прерван");
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void submit(ThreadPoolExecutor executor, String[] batch, int length, Report report,
+                        AtomicReference<RuntimeException> failure) {
+        executor.execute(() -> {
+            try {
+                check(batch, length, report);
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    /**
+     * Проверяет пакет, накапливая количества локально и добавляя их в итоги один раз.
+     */
+    private void check(String[] batch, int length, Report report) {
+        long[] errorCounts = new long[Integer.SIZE];
+        long valid = 0;
+        long malformed = 0;
+
+        for (int i = 0; i < length; i++) {
+            String line = batch[i];
+            int separator = line.indexOf('\t');
+            if (separator < 0) {
+                malformed++;
+                continue;
+            }
+            int errorMask = policy.check(line.substring(separator + 1), line.substring(0, separator));
+            if (errorMask == 0) {
+                valid++;
+            }
+            for (int remaining = errorMask; remaining != 0; remaining &= remaining - 1) {
+                errorCounts[Integer.numberOfTrailingZeros(remaining)]++;
+            }
+        }
+
+        report.records.add(length - malformed);
+        report.valid.add(valid);
+        report.malformed.add(malformed);
+        for (int bit = 0; bit < Integer.SIZE; bit++) {
+            if (errorCounts[bit] != 0) {
+                report.errors[bit].add(errorCounts[bit]);
+            }
+        }
+    }
+
+    /**
+     * Итоги аудита: количества записей и ошибок каждого вида.
+     */
+    public static final class Report {
+        private final PasswordPolicy policy;
+        private final LongAdder records = new LongAdder();
+        private final LongAdder valid = new LongAdder();
+        private final LongAdder malformed = new LongAdder();
+        private final LongAdder[] errors = new LongAdder[Integer.SIZE];
+        private long elapsedNanos;
+
+        private Report(PasswordPolicy policy) {
+            this.policy = policy;
+            for (int bit = 0; bit < Integer.SIZE; bit++) {
+                errors[bit] = new LongAdder();
+            }
+        }
+
+        /**
+         * Возвращает количество проверенных записей.
+         * @return число записей
+         */
+        public long getRecordCount() {
+            return records.sum();
+        }
+
+        /**
+         * Возвращает количество записей с валидным паролем.
+         * @return число валидных записей
+         */
+        public long getValidCount() {
+            return valid.sum();
+        }
+
+        /**
+         * Возвращает количество записей с невалидным паролем.
+         * @return число невалидных записей
+         */
+        public long getInvalidCount() {
+            return getRecordCount() - getValidCount();
+        }
+
+        /**
+         * Возвращает количество строк без разделителя, которые не удалось проверить.
+         * @return число пропущенных строк
+         */
+        public long getMalformedCount() {
+            return malformed.sum();
+        }
+
+        /**
+         * Возвращает количество записей с ошибкой.
+         * @param error код ошибки {@code ERROR_*} или собственного требования политики
+         * @return число записей с этой ошибкой
+         */
+        public long getErrorCount(int error) {
+            if (Integer.bitCount(error) != 1) {
+                throw new IllegalArgumentException("Ожидался код одной ошибки: " + error);
+            }
+            return errors[Integer.numberOfTrailingZeros(error)].sum();
+        }
+
+        /**
+         * Возвращает время аудита.
+         * @return время в наносекундах
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Возвращает скорость проверки.
+         * @return записей в секунду
+         */
+        public double getRecordsPerSecond() {
+            return (getRecordCount() + getMalformedCount()) / Math.max(elapsedNanos / 1e9, 1e-9);
+        }
+
+        /**
+         * Выводит итоги: общие количества и количество записей по каждой причине ошибки.
+         * @param out приемник отчета
+         */
+        public void print(PrintStream out) {
+            out.println("Записей\t" + getRecordCount());
+            out.println("Валидных\t" + getValidCount());
+            out.println("Невалидных\t" + getInvalidCount());
+            out.println("Пропущено строк\t" + getMalformedCount());
+            for (int remaining = policy.getErrorCodes(); remaining != 0; remaining &= remaining - 1) {
+                int error = Integer.lowestOneBit(remaining);
+                out.println(policy.messagesOf(error).get(0) + "\t" + getErrorCount(error));
+            }
+        }
+    }
+}
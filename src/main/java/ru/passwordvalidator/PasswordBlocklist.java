@@ -0,0 +1,232 @@
+package ru.passwordvalidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** Список распространенных и скомпрометированных паролей.
+ * Список хранится как отсортированный массив 64-битных хэшей байтов паролей в UTF-8.
+ * Файл списка строится один раз из текстового файла (один пароль в строке) методом
+ * {@link #build(Path, Path)} и затем отображается в память методом {@link #open(Path)}:
+ * загрузка не разбирает пароли в строки, а поиск выполняется двоичным поиском
+ * по отображению без создания объектов. Вероятность ложного срабатывания для списка
+ * из {@code n} паролей не превышает {@code n / 2^64}.
+ * <p>
+ * Формат файла (порядок байтов little-endian): сигнатура "PWBL", версия, количество хэшей
+ * ({@code long}), затем хэши по возрастанию.
+ */
+public final class PasswordBlocklist {
+
+    /** Сигнатура файла: "PWBL". */
+    private static final int MAGIC = 0x4C425750;
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+
+    /** Размер буфера чтения текстового списка. */
+    private static final int READ_BUFFER = 1 << 16;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Отсортированные хэши паролей. */
+    private final LongBuffer hashes;
+
+    private PasswordBlocklist(LongBuffer hashes) {
+        this.hashes = hashes;
+    }
+
+    /**
+     * Строит файл списка из текстового файла в UTF-8 с одним паролем в строке.
+     * Пустые строки пропускаются, завершающие {@code \r} отбрасываются.
+     * @param textFile текстовый список паролей
+     * @param blocklistFile файл списка для {@link #open(Path)}
+     * @return количество различных паролей в списке
+     * @throws IOException если файл не удалось прочитать или записать
+     */
+    public static int build(Path textFile, Path blocklistFile) throws IOException {
+        long[] sorted;
+        try (InputStream in = Files.newInputStream(textFile)) {
+            sorted = hashLines(in);
+        }
+
+        ByteBuffer output = ByteBuffer.allocate(HEADER + sorted.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        output.putInt(MAGIC).putInt(VERSION).putLong(sorted.length);
+        output.asLongBuffer().put(sorted);
+        output.rewind();
+        try (FileChannel channel = FileChannel.open(blocklistFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (output.hasRemaining()) {
+                channel.write(output);
+            }
+        }
+        return sorted.length;
+    }
+
+    /**
+     * Отображает в память файл списка, построенный {@link #build(Path, Path)}.
+     * @param blocklistFile файл списка
+     * @return список паролей
+     * @throws IOException если файл не удалось прочитать или он поврежден
+     */
+    public static PasswordBlocklist open(Path blocklistFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(blocklistFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) {
+                throw new IOException("Неизвестный формат списка паролей: " + blocklistFile);
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            long count = mapped.getLong(8);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION || count != (size - HEADER) / Long.BYTES) {
+                throw new IOException("Неизвестный формат списка паролей: " + blocklistFile);
+            }
+            return new PasswordBlocklist(mapped.position(HEADER).slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+        }
+    }
+
+    /**
+     * Создает список в памяти из текстового потока в UTF-8 с одним паролем в строке.
+     * @param in поток со списком паролей
+     * @return список паролей
+     * @throws IOException если поток не удалось прочитать
+     */
+    public static PasswordBlocklist fromText(InputStream in) throws IOException {
+        return new PasswordBlocklist(LongBuffer.wrap(hashLines(in)));
+    }
+
+    /**
+     * Проверяет, входит ли пароль в список.
+     * @param password пароль
+     * @return true, если пароль есть в списке
+     */
+    public boolean contains(String password) {
+        long hash = hash(password);
+        int low = 0;
+        int high = hashes.limit() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = hashes.get(middle);
+            if (value < hash) {
+                low = middle + 1;
+            } else if (value > hash) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает количество паролей в списке.
+     * @return размер списка
+     */
+    public int size() {
+        return hashes.limit();
+    }
+
+    /**
+     * Читает строки потока и возвращает отсортированные различные хэши.
+     */
+    private static long[] hashLines(InputStream in) throws IOException {
+        byte[] buffer = new byte[READ_BUFFER];
+        long[] result = new long[1024];
+        int count = 0;
+        long hash = FNV_OFFSET;
+        int lineLength = 0;
+        boolean pendingCarriageReturn = false;
+
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                int current = buffer[i] & 0xFF;
+                if (current == '\n') {
+                    if (lineLength > 0) {
+                        if (count == result.length) {
+                            result = Arrays.copyOf(result, count << 1);
+                        }
+                        result[count++] = mix(hash);
+                    }
+                    hash = FNV_OFFSET;
+                    lineLength = 0;
+                    pendingCarriageReturn = false;
+                    continue;
+                }
+
+                // Символ \r учитывается, только если за ним следует не перевод строки.
+                if (pendingCarriageReturn) {
+                    hash = (hash ^ '\r') * FNV_PRIME;
+                    lineLength++;
+                    pendingCarriageReturn = false;
+                }
+                if (current == '\r') {
+                    pendingCarriageReturn = true;
+                } else {
+                    hash = (hash ^ current) * FNV_PRIME;
+                    lineLength++;
+                }
+            }
+        }
+        if (lineLength > 0) {
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count + 1);
+            }
+            result[count++] = mix(hash);
+        }
+
+        Arrays.sort(result, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || result[unique - 1] != result[i]) {
+                result[unique++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, unique);
+    }
+
+    /**
+     * Вычисляет хэш байтов строки в UTF-8, кодируя символы на лету.
+     */
+    static long hash(String value) {
+        long hash = FNV_OFFSET;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char symbol = value.charAt(i);
+            if (symbol < 0x80) {
+                hash = (hash ^ symbol) * FNV_PRIME;
+            } else if (symbol < 0x800) {
+                hash = (hash ^ (0xC0 | (symbol >> 6))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | (symbol & 0x3F))) * FNV_PRIME;
+            } else if (Character.isHighSurrogate(symbol) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(symbol, value.charAt(++i));
+                hash = (hash ^ (0xF0 | (codePoint >> 18))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | ((codePoint >> 12) & 0x3F))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | ((codePoint >> 6) & 0x3F))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | (codePoint & 0x3F))) * FNV_PRIME;
+            } else {
+                hash = (hash ^ (0xE0 | (symbol >> 12))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | ((symbol >> 6) & 0x3F))) * FNV_PRIME;
+                hash = (hash ^ (0x80 | (symbol & 0x3F))) * FNV_PRIME;
+            }
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Перемешивает биты хэша, чтобы значения равномерно распределялись для двоичного поиска.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
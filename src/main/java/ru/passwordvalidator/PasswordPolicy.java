@@ -0,0 +1,587 @@
+package ru.passwordvalidator;
+
+import ru.passwordvalidator.PasswordValidator.ValidationResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+
+import static ru.passwordvalidator.PasswordValidator.ERROR_BLOCKLISTED;
+import static ru.passwordvalidator.PasswordValidator.ERROR_CONTAINS_FORBIDDEN;
+import static ru.passwordvalidator.PasswordValidator.ERROR_NO_DIGIT;
+import static ru.passwordvalidator.PasswordValidator.ERROR_NO_LOWER;
+import static ru.passwordvalidator.PasswordValidator.ERROR_NO_SPECIAL;
+import static ru.passwordvalidator.PasswordValidator.ERROR_NO_UPPER;
+import static ru.passwordvalidator.PasswordValidator.ERROR_SIMILAR_TO_PERSONAL_DATA;
+import static ru.passwordvalidator.PasswordValidator.ERROR_TOO_LONG;
+import static ru.passwordvalidator.PasswordValidator.ERROR_TOO_SHORT;
+import static ru.passwordvalidator.PasswordValidator.ERROR_USERNAME_MATCH;
+
+/** Политика проверки пароля.
+ * Политика описывается через {@link Builder}: длина, обязательные классы символов,
+ * запрещенные символы, совпадение и сходство с личными данными ({@link PersonalDataSimilarity}), список распространенных паролей
+ * ({@link PasswordBlocklist}) и собственные требования.
+ * При сборке правила компилируются в таблицу классов символов ASCII и набор масок,
+ * поэтому проверка выполняется одним просмотром пароля, как у {@link PasswordValidator}.
+ * Ошибки возвращаются битовой маской кодов {@code PasswordValidator.ERROR_*}; собственные
+ * требования получают биты начиная с {@link #FIRST_CUSTOM_ERROR}. Сообщения встроенных
+ * требований берутся из {@link ValidationMessages} для запрошенного языка; сообщения
+ * собственных требований не переводятся. Политика неизменяема и может использоваться
+ * из нескольких потоков.
+ */
+public final class PasswordPolicy {
+
+    /** Бит первого собственного требования. */
+    public static final int FIRST_CUSTOM_ERROR = 1 << 16;
+
+    /** Максимальное количество собственных требований. */
+    private static final int MAX_CUSTOM_RULES = 16;
+
+    /** Классы символов, найденные при просмотре пароля. */
+    private static final int HAS_DIGIT = 1;
+    private static final int HAS_LOWER = 1 << 1;
+    private static final int HAS_UPPER = 1 << 2;
+    private static final int HAS_SPECIAL = 1 << 3;
+    private static final int HAS_FORBIDDEN = 1 << 4;
+
+    private static final int ASCII = 128;
+
+    /** Политика, повторяющая правила {@link PasswordValidator}. */
+    private static final PasswordPolicy DEFAULT = builder()
+            .minLength(8)
+            .requireDigit()
+            .requireLowercase()
+            .requireUppercase()
+            .rejectUsername()
+            .forbidSpacesAndQuotes()
+            .build();
+
+    private final int minLength;
+    private final int maxLength;
+    private final boolean rejectUsername;
+    private final boolean rejectPersonalData;
+
+    /** Классы, которые нужно найти в пароле: обязательные и запрещенные. */
+    private final int trackedClasses;
+
+    /** Обязательные классы символов. */
+    private final int requiredClasses;
+
+    /** Классы символов ASCII с учетом запрещенных символов политики. */
+    private final byte[] asciiClasses;
+
+    /** Запрещены ли пробельные символы за пределами ASCII. */
+    private final boolean forbidSpaces;
+
+    /** Запрещенные символы в порядке добавления, для сообщения об ошибке. */
+    private final String forbiddenCharacters;
+
+    /** Запрещенные символы за пределами ASCII, по возрастанию. */
+    private final char[] forbiddenNonAscii;
+
+    /** Список запрещенных паролей или null. */
+    private final PasswordBlocklist blocklist;
+
+    private final List<BiPredicate<String, String>> customRules;
+
+    private final List<String> customMessages;
+
+    /** Сообщения об ошибках по номеру бита для каталога по умолчанию. */
+    private final String[] messages;
+
+    /** Сообщения об ошибках по номеру бита для других языков; заполняются при первом обращении. */
+    private final ConcurrentHashMap<Locale, String[]> localizedMessages = new ConcurrentHashMap<>();
+
+    /** Все коды ошибок, которые может вернуть политика. */
+    private final int errorCodes;
+
+    /** Совпадают ли все сообщения политики с каталогом по умолчанию: тогда результаты общие. */
+    private final boolean sharedResults;
+
+    private PasswordPolicy(Builder builder) {
+        minLength = builder.minLength;
+        maxLength = builder.maxLength;
+        rejectUsername = builder.rejectUsername;
+        rejectPersonalData = builder.rejectPersonalData;
+        requiredClasses = builder.requiredClasses;
+        forbidSpaces = builder.forbidSpaces;
+        blocklist = builder.blocklist;
+        customRules = List.copyOf(builder.customRules);
+        customMessages = List.copyOf(builder.customMessages);
+        forbiddenCharacters = builder.forbiddenCharacters.toString();
+
+        char[] forbidden = forbiddenCharacters.toCharArray();
+        Arrays.sort(forbidden);
+        int firstNonAscii = 0;
+        while (firstNonAscii < forbidden.length && forbidden[firstNonAscii] < ASCII) {
+            firstNonAscii++;
+        }
+        forbiddenNonAscii = Arrays.copyOfRange(forbidden, firstNonAscii, forbidden.length);
+
+        boolean hasForbidden = forbidSpaces || forbidden.length > 0;
+        trackedClasses = requiredClasses | (hasForbidden ? HAS_FORBIDDEN : 0);
+
+        asciiClasses = new byte[ASCII];
+        for (char symbol = 0; symbol < ASCII; symbol++) {
+            int classes = classifyLetterOrDigit(symbol);
+            if (Arrays.binarySearch(forbidden, 0, firstNonAscii, symbol) >= 0
+                    || (forbidSpaces && isSpaceOrQuote(symbol))) {
+                classes |= HAS_FORBIDDEN;
+            }
+            asciiClasses[symbol] = (byte) classes;
+        }
+
+        int codes = 0;
+        if (minLength > 0) {
+            codes |= ERROR_TOO_SHORT;
+        }
+        if (maxLength < Integer.MAX_VALUE) {
+            codes |= ERROR_TOO_LONG;
+        }
+        if ((requiredClasses & HAS_DIGIT) != 0) {
+            codes |= ERROR_NO_DIGIT;
+        }
+        if ((requiredClasses & HAS_LOWER) != 0) {
+            codes |= ERROR_NO_LOWER;
+        }
+        if ((requiredClasses & HAS_UPPER) != 0) {
+            codes |= ERROR_NO_UPPER;
+        }
+        if ((requiredClasses & HAS_SPECIAL) != 0) {
+            codes |= ERROR_NO_SPECIAL;
+        }
+        if (rejectUsername) {
+            codes |= ERROR_USERNAME_MATCH;
+        }
+        if (rejectPersonalData) {
+            codes |= ERROR_SIMILAR_TO_PERSONAL_DATA;
+        }
+        if (hasForbidden) {
+            codes |= ERROR_CONTAINS_FORBIDDEN;
+        }
+        if (blocklist != null) {
+            codes |= ERROR_BLOCKLISTED;
+        }
+        for (int i = 0; i < customRules.size(); i++) {
+            codes |= FIRST_CUSTOM_ERROR << i;
+        }
+        errorCodes = codes;
+
+        ValidationMessages catalog = ValidationMessages.defaultMessages();
+        messages = messagesFor(catalog);
+        boolean shared = (codes & ~ValidationMessages.BUILT_IN_ERRORS) == 0;
+        for (int remaining = codes; shared && remaining != 0; remaining &= remaining - 1) {
+            int error = Integer.lowestOneBit(remaining);
+            shared = messages[bit(error)].equals(catalog.message(error));
+        }
+        sharedResults = shared;
+    }
+
+    /**
+     * Составляет сообщения политики по номеру бита из каталога языка.
+     */
+    private String[] messagesFor(ValidationMessages catalog) {
+        String[] result = new String[Integer.SIZE];
+        for (int remaining = errorCodes & ValidationMessages.BUILT_IN_ERRORS; remaining != 0; remaining &= remaining - 1) {
+            int error = Integer.lowestOneBit(remaining);
+            result[bit(error)] = catalog.message(error);
+        }
+        if (minLength > 0 && minLength != 8) {
+            result[bit(ERROR_TOO_SHORT)] = catalog.minLength(minLength);
+        }
+        if (maxLength < Integer.MAX_VALUE) {
+            result[bit(ERROR_TOO_LONG)] = catalog.maxLength(maxLength);
+        }
+        if (!forbiddenCharacters.isEmpty()) {
+            result[bit(ERROR_CONTAINS_FORBIDDEN)] = catalog.forbidden(forbidSpaces, forbiddenCharacters);
+        }
+        // Сообщение о списке задается всегда: PasswordValidator добавляет эту ошибку к политике по умолчанию.
+        result[bit(ERROR_BLOCKLISTED)] = catalog.message(ERROR_BLOCKLISTED);
+        for (int i = 0; i < customMessages.size(); i++) {
+            result[bit(FIRST_CUSTOM_ERROR) + i] = customMessages.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает политику, повторяющую правила {@link PasswordValidator}.
+     * @return политика по умолчанию
+     */
+    public static PasswordPolicy defaultPolicy() {
+        return DEFAULT;
+    }
+
+    /**
+     * Создает построитель пустой политики, которая принимает любой пароль.
+     * @return построитель
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Проверяет пароль за один просмотр символов без создания объектов (кроме собственных требований).
+     * @param password пароль
+     * @param userName имя пользователя
+     * @return битовая маска ошибок; 0, если пароль отвечает политике
+     */
+    public int check(String password, String userName) {
+        return check(password, userName, null, null);
+    }
+
+    /**
+     * Проверяет пароль с учетом личных данных пользователя.
+     * @param password пароль
+     * @param userName имя пользователя
+     * @param email адрес электронной почты или null
+     * @param fullName полное имя или null
+     * @return битовая маска ошибок; 0, если пароль отвечает политике
+     */
+    public int check(String password, String userName, String email, String fullName) {
+        int length = password.length();
+        int found = 0;
+
+        if (trackedClasses != 0) {
+            for (int i = 0; i < length; i++) {
+                char symbol = password.charAt(i);
+                found |= symbol < ASCII ? asciiClasses[symbol] : classifyNonAscii(symbol);
+                if ((found & trackedClasses) == trackedClasses) {
+                    break;
+                }
+            }
+        }
+
+        int errorMask = 0;
+        if (length < minLength) {
+            errorMask |= ERROR_TOO_SHORT;
+        }
+        if (length > maxLength) {
+            errorMask |= ERROR_TOO_LONG;
+        }
+        int missing = requiredClasses & ~found;
+        if (missing != 0) {
+            if ((missing & HAS_DIGIT) != 0) {
+                errorMask |= ERROR_NO_DIGIT;
+            }
+            if ((missing & HAS_LOWER) != 0) {
+                errorMask |= ERROR_NO_LOWER;
+            }
+            if ((missing & HAS_UPPER) != 0) {
+                errorMask |= ERROR_NO_UPPER;
+            }
+            if ((missing & HAS_SPECIAL) != 0) {
+                errorMask |= ERROR_NO_SPECIAL;
+            }
+        }
+        if (rejectUsername && password.equals(userName)) {
+            errorMask |= ERROR_USERNAME_MATCH;
+        }
+        if (rejectPersonalData && (PersonalDataSimilarity.isSimilar(password, userName)
+                || PersonalDataSimilarity.isSimilarToEmail(password, email)
+                || PersonalDataSimilarity.isSimilar(password, fullName))) {
+            errorMask |= ERROR_SIMILAR_TO_PERSONAL_DATA;
+        }
+        if ((found & HAS_FORBIDDEN) != 0) {
+            errorMask |= ERROR_CONTAINS_FORBIDDEN;
+        }
+        if (blocklist != null && blocklist.contains(password)) {
+            errorMask |= ERROR_BLOCKLISTED;
+        }
+        for (int i = 0; i < customRules.size(); i++) {
+            if (!customRules.get(i).test(password, userName)) {
+                errorMask |= FIRST_CUSTOM_ERROR << i;
+            }
+        }
+        return errorMask;
+    }
+
+    /**
+     * Проверяет пароль и возвращает результат со списком сообщений. Если политика использует
+     * только встроенные сообщения, возвращается общий результат из {@link ValidationMessages}.
+     * @param password пароль
+     * @param userName имя пользователя
+     * @return результат проверки
+     */
+    public ValidationResult validate(String password, String userName) {
+        return validate(password, userName, null, null);
+    }
+
+    /**
+     * Проверяет пароль с учетом личных данных пользователя и возвращает результат со списком сообщений.
+     * @param password пароль
+     * @param userName имя пользователя
+     * @param email адрес электронной почты или null
+     * @param fullName полное имя или null
+     * @return результат проверки
+     */
+    public ValidationResult validate(String password, String userName, String email, String fullName) {
+        int errorMask = check(password, userName, email, fullName);
+        if (errorMask == 0) {
+            return ValidationMessages.VALID;
+        }
+        if (sharedResults) {
+            return ValidationMessages.defaultMessages().result(errorMask);
+        }
+        return new ValidationResult(false, messagesOf(messages, errorMask), errorMask);
+    }
+
+    /**
+     * Проверяет пароль и возвращает результат с сообщениями на заданном языке.
+     * @param password пароль
+     * @param userName имя пользователя
+     * @param locale язык сообщений; если для языка нет сообщений, используются русские
+     * @return результат проверки
+     */
+    public ValidationResult validate(String password, String userName, Locale locale) {
+        return validate(password, userName, null, null, locale);
+    }
+
+    /**
+     * Проверяет пароль с учетом личных данных пользователя и возвращает результат с сообщениями
+     * на заданном языке.
+     * @param password пароль
+     * @param userName имя пользователя
+     * @param email адрес электронной почты или null
+     * @param fullName полное имя или null
+     * @param locale язык сообщений; если для языка нет сообщений, используются русские
+     * @return результат проверки
+     */
+    public ValidationResult validate(String password, String userName, String email, String fullName, Locale locale) {
+        int errorMask = check(password, userName, email, fullName);
+        if (errorMask == 0) {
+            return ValidationMessages.VALID;
+        }
+        ValidationMessages catalog = ValidationMessages.forLocale(locale);
+        if (sharedResults) {
+            return catalog.result(errorMask);
+        }
+        String[] localized = localizedMessages.computeIfAbsent(locale, key -> messagesFor(catalog));
+        return new ValidationResult(false, messagesOf(localized, errorMask), errorMask);
+    }
+
+    /**
+     * Возвращает сообщения для ошибок маски в порядке номеров битов.
+     * @param errorMask битовая маска ошибок этой политики
+     * @return неизменяемый список сообщений
+     */
+    public List<String> messagesOf(int errorMask) {
+        return messagesOf(messages, errorMask);
+    }
+
+    private static List<String> messagesOf(String[] messages, int errorMask) {
+        String[] result = new String[Integer.bitCount(errorMask)];
+        int count = 0;
+        for (int remaining = errorMask; remaining != 0; remaining &= remaining - 1) {
+            result[count++] = messages[Integer.numberOfTrailingZeros(remaining)];
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Возвращает все коды ошибок, которые может вернуть политика.
+     * @return битовая маска кодов
+     */
+    public int getErrorCodes() {
+        return errorCodes;
+    }
+
+    private int classifyNonAscii(char symbol) {
+        int classes = classifyLetterOrDigit(symbol);
+        if ((forbidSpaces && Character.isSpaceChar(symbol))
+                || (forbiddenNonAscii.length > 0 && Arrays.binarySearch(forbiddenNonAscii, symbol) >= 0)) {
+            classes |= HAS_FORBIDDEN;
+        }
+        return classes;
+    }
+
+    /**
+     * Определяет классы символа так же, как проверки {@link Character}; специальным
+     * считается символ, который не является буквой, цифрой или пробельным символом.
+     */
+    private static int classifyLetterOrDigit(char symbol) {
+        int classes = 0;
+        if (Character.isDigit(symbol)) {
+            classes |= HAS_DIGIT;
+        }
+        if (Character.isLowerCase(symbol)) {
+            classes |= HAS_LOWER;
+        }
+        if (Character.isUpperCase(symbol)) {
+            classes |= HAS_UPPER;
+        }
+        if (!Character.isLetterOrDigit(symbol) && !Character.isWhitespace(symbol) && !Character.isSpaceChar(symbol)) {
+            classes |= HAS_SPECIAL;
+        }
+        return classes;
+    }
+
+    private static boolean isSpaceOrQuote(char symbol) {
+        return Character.isSpaceChar(symbol) || symbol == '\t' || symbol == '"';
+    }
+
+    private static int bit(int error) {
+        return Integer.numberOfTrailingZeros(error);
+    }
+
+    /**
+     * Построитель политики.
+     */
+    public static final class Builder {
+        private int minLength;
+        private int maxLength = Integer.MAX_VALUE;
+        private int requiredClasses;
+        private boolean rejectUsername;
+        private boolean rejectPersonalData;
+        private boolean forbidSpaces;
+        private PasswordBlocklist blocklist;
+        private final StringBuilder forbiddenCharacters = new StringBuilder();
+        private final List<BiPredicate<String, String>> customRules = new ArrayList<>();
+        private final List<String> customMessages = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Задает минимальную длину пароля.
+         * @param length минимальное количество символов
+         * @return этот построитель
+         */
+        public Builder minLength(int length) {
+            if (length < 0) {
+                throw new IllegalArgumentException("Минимальная длина не может быть отрицательной");
+            }
+            minLength = length;
+            return this;
+        }
+
+        /**
+         * Задает максимальную длину пароля.
+         * @param length максимальное количество символов
+         * @return этот построитель
+         */
+        public Builder maxLength(int length) {
+            if (length < 1) {
+                throw new IllegalArgumentException("Максимальная длина должна быть положительной");
+            }
+            maxLength = length;
+            return this;
+        }
+
+        /**
+         * Требует хотя бы одну цифру.
+         * @return этот построитель
+         */
+        public Builder requireDigit() {
+            requiredClasses |= HAS_DIGIT;
+            return this;
+        }
+
+        /**
+         * Требует хотя бы одну строчную букву.
+         * @return этот построитель
+         */
+        public Builder requireLowercase() {
+            requiredClasses |= HAS_LOWER;
+            return this;
+        }
+
+        /**
+         * Требует хотя бы одну заглавную букву.
+         * @return этот построитель
+         */
+        public Builder requireUppercase() {
+            requiredClasses |= HAS_UPPER;
+            return this;
+        }
+
+        /**
+         * Требует хотя бы один специальный символ (не букву, не цифру и не пробельный символ).
+         * @return этот построитель
+         */
+        public Builder requireSpecial() {
+            requiredClasses |= HAS_SPECIAL;
+            return this;
+        }
+
+        /**
+         * Запрещает пароль, совпадающий с именем пользователя.
+         * @return этот построитель
+         */
+        public Builder rejectUsername() {
+            rejectUsername = true;
+            return this;
+        }
+
+        /**
+         * Запрещает пароли, содержащие имя пользователя, часть адреса почты до {@code @}, слова
+         * полного имени или похожие на них фрагменты (см. {@link PersonalDataSimilarity}).
+         * @return этот построитель
+         */
+        public Builder rejectPersonalData() {
+            rejectPersonalData = true;
+            return this;
+        }
+
+        /**
+         * Запрещает пробельные символы, табуляцию и кавычки (").
+         * @return этот построитель
+         */
+        public Builder forbidSpacesAndQuotes() {
+            forbidSpaces = true;
+            return this;
+        }
+
+        /**
+         * Запрещает перечисленные символы.
+         * @param characters запрещенные символы
+         * @return этот построитель
+         */
+        public Builder forbidCharacters(String characters) {
+            forbiddenCharacters.append(characters);
+            return this;
+        }
+
+        /**
+         * Запрещает пароли из списка распространенных и скомпрометированных паролей.
+         * @param blocklist список паролей
+         * @return этот построитель
+         */
+        public Builder rejectBlocklisted(PasswordBlocklist blocklist) {
+            if (blocklist == null) {
+                throw new IllegalArgumentException("Список паролей не задан");
+            }
+            this.blocklist = blocklist;
+            return this;
+        }
+
+        /**
+         * Добавляет собственное требование.
+         * @param message сообщение об ошибке, если требование не выполнено
+         * @param requirement требование: принимает пароль и имя пользователя, возвращает true, если пароль подходит
+         * @return этот построитель
+         */
+        public Builder require(String message, BiPredicate<String, String> requirement) {
+            if (customRules.size() == MAX_CUSTOM_RULES) {
+                throw new IllegalArgumentException("Политика поддерживает не более " + MAX_CUSTOM_RULES + " собственных требований");
+            }
+            customRules.add(requirement);
+            customMessages.add(message);
+            return this;
+        }
+
+        /**
+         * Компилирует политику.
+         * @return неизменяемая политика
+         * @throws IllegalArgumentException если минимальная длина больше максимальной
+         */
+        public PasswordPolicy build() {
+            if (minLength > maxLength) {
+                throw new IllegalArgumentException("Минимальная длина больше максимальной");
+            }
+            return new PasswordPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package ru.passwordvalidator;
+
+import java.util.Arrays;
+
+/** Оценка стойкости пароля по энтропии.
+ * Каждый символ пароля дает {@code log2(размер алфавита)} бит, где размер алфавита складывается
+ * из классов символов, встретившихся в пароле: строчные и заглавные буквы любого алфавита, цифры,
+ * знаки ASCII и прочие символы. Символ, продолжающий шаблон — повтор предыдущего символа, последовательность
+ * ({@code abc}, {@code 321}) или соседнюю клавишу в раскладках QWERTY и ЙЦУКЕН ({@code qwe}, {@code фыв}), —
+ * дает только {@link #PATTERN_BITS} бит. Энтропия переводится в оценку от 0 (очень слабый)
+ * до 4 (очень стойкий).
+ * <p>
+ * Для ввода по символам используется {@link Meter}: он хранит счетчики и пересчитывает оценку
+ * за постоянное время при добавлении и удалении последнего символа, не просматривая строку заново.
+ */
+public final class PasswordStrength {
+
+    /** Вклад символа, продолжающего шаблон, в битах. */
+    public static final double PATTERN_BITS = 1.0;
+
+    /** Нижние границы энтропии в битах для оценок 1–4. */
+    private static final double[] SCORE_BITS = {28, 36, 60, 128};
+
+    /** Классы символов для размера алфавита. */
+    private static final int LOWER = 1;
+    private static final int UPPER = 1 << 1;
+    private static final int DIGIT = 1 << 2;
+    private static final int SYMBOL = 1 << 3;
+    private static final int OTHER = 1 << 4;
+
+    /** Размеры алфавитов классов. */
+    private static final int[] CLASS_SIZES = {26, 26, 10, 33, 100};
+
+    /** Двоичный логарифм размера алфавита для каждого набора классов. */
+    private static final double[] POOL_BITS = new double[1 << CLASS_SIZES.length];
+
+    /** Раскладки клавиатуры по рядам, без учета регистра. */
+    private static final String[][] KEYBOARDS = {
+            {"`1234567890-=", "qwertyuiop[]\\", "asdfghjkl;'", "zxcvbnm,./"},
+            {"ё1234567890-=", "йцукенгшщзхъ\\", "фывапролджэ", "ячсмитьбю."}
+    };
+
+    /** Положение клавиши: (раскладка * 4 + ряд) * 16 + столбец + 1; 0, если клавиши нет. */
+    private static final short[] KEY_POSITIONS = new short[0x460];
+
+    static {
+        for (int classes = 1; classes < POOL_BITS.length; classes++) {
+            int pool = 0;
+            for (int i = 0; i < CLASS_SIZES.length; i++) {
+                if ((classes & (1 << i)) != 0) {
+                    pool += CLASS_SIZES[i];
+                }
+            }
+            POOL_BITS[classes] = Math.log(pool) / Math.log(2);
+        }
+        for (int layout = 0; layout < KEYBOARDS.length; layout++) {
+            for (int row = 0; row < KEYBOARDS[layout].length; row++) {
+                String keys = KEYBOARDS[layout][row];
+                for (int column = 0; column < keys.length(); column++) {
+                    char key = keys.charAt(column);
+                    // Цифры и знаки общие для раскладок: сохраняется положение в первой.
+                    if (KEY_POSITIONS[key] == 0) {
+                        KEY_POSITIONS[key] = (short) (((layout * 4 + row) << 4) + column + 1);
+                    }
+                }
+            }
+        }
+    }
+
+    private PasswordStrength() {
+    }
+
+    /**
+     * Оценивает энтропию пароля.
+     * @param password пароль
+     * @return энтропия в битах
+     */
+    public static double entropyBits(CharSequence password) {
+        int classes = 0;
+        int freeCount = 0;
+        int patternCount = 0;
+        char previous = 0;
+        for (int i = 0; i < password.length(); i++) {
+            char symbol = password.charAt(i);
+            classes |= classOf(symbol);
+            if (i > 0 && continuesPattern(previous, symbol)) {
+                patternCount++;
+            } else {
+                freeCount++;
+            }
+            previous = symbol;
+        }
+        return entropyBits(classes, freeCount, patternCount);
+    }
+
+    /**
+     * Оценивает стойкость пароля.
+     * @param password пароль
+     * @return оценка от 0 (очень слабый) до 4 (очень стойкий)
+     */
+    public static int score(CharSequence password) {
+        return scoreOf(entropyBits(password));
+    }
+
+    /**
+     * Переводит энтропию в оценку.
+     * @param entropyBits энтропия в битах
+     * @return оценка от 0 до 4
+     */
+    public static int scoreOf(double entropyBits) {
+        int score = 0;
+        while (score < SCORE_BITS.length && entropyBits >= SCORE_BITS[score]) {
+            score++;
+        }
+        return score;
+    }
+
+    private static double entropyBits(int classes, int freeCount, int patternCount) {
+        return freeCount * POOL_BITS[classes] + patternCount * PATTERN_BITS;
+    }
+
+    private static int classOf(char symbol) {
+        if (symbol >= 'a' && symbol <= 'z') {
+            return LOWER;
+        }
+        if (symbol >= 'A' && symbol <= 'Z') {
+            return UPPER;
+        }
+        if (symbol >= '0' && symbol <= '9') {
+            return DIGIT;
+        }
+        if (symbol >= ' ' && symbol < 0x7F) {
+            return SYMBOL;
+        }
+        // Буквы других алфавитов оцениваются как латинские того же регистра.
+        if (Character.isLowerCase(symbol)) {
+            return LOWER;
+        }
+        if (Character.isUpperCase(symbol)) {
+            return UPPER;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Проверяет, продолжает ли символ шаблон: повтор, последовательность или соседняя клавиша.
+     */
+    static boolean continuesPattern(char previous, char current) {
+        char a = Character.toLowerCase(previous);
+        char b = Character.toLowerCase(current);
+        if (a == b) {
+            return true;
+        }
+        if (Math.abs(a - b) == 1 && Character.isLetterOrDigit(a) && Character.isLetterOrDigit(b)
+                && Character.isDigit(a) == Character.isDigit(b)) {
+            return true;
+        }
+        int first = a < KEY_POSITIONS.length ? KEY_POSITIONS[a] : 0;
+        int second = b < KEY_POSITIONS.length ? KEY_POSITIONS[b] : 0;
+        if (first == 0 || second == 0 || (first >> 6) != (second >> 6)) {
+            return false;
+        }
+        int rows = ((first >> 4) & 3) - ((second >> 4) & 3);
+        int columns = (first & 15) - (second & 15);
+        return Math.abs(rows) <= 1 && Math.abs(columns) <= 1;
+    }
+
+    /**
+     * Оценка пароля, вводимого по символам. Не потокобезопасна; после роста до наибольшей длины
+     * пароля операции не создают объектов.
+     */
+    public static final class Meter {
+
+        /** Введенные символы. */
+        private char[] symbols = new char[32];
+
+        /** Набор классов после каждого символа. */
+        private byte[] classesAfter = new byte[32];
+
+        /** Продолжает ли символ шаблон. */
+        private boolean[] patterns = new boolean[32];
+
+        private int length;
+        private int patternCount;
+
+        /**
+         * Добавляет символ в конец пароля.
+         * @param symbol символ
+         */
+        public void append(char symbol) {
+            if (length == symbols.length) {
+                symbols = Arrays.copyOf(symbols, length << 1);
+                classesAfter = Arrays.copyOf(classesAfter, length << 1);
+                patterns = Arrays.copyOf(patterns, length << 1);
+            }
+            int classes = classOf(symbol);
+            boolean pattern = false;
+            if (length > 0) {
+                classes |= classesAfter[length - 1];
+                pattern = continuesPattern(symbols[length - 1], symbol);
+            }
+            symbols[length] = symbol;
+            classesAfter[length] = (byte) classes;
+            patterns[length] = pattern;
+            if (pattern) {
+                patternCount++;
+            }
+            length++;
+        }
+
+        /**
+         * Удаляет последний символ, если он есть.
+         */
+        public void removeLast() {
+            if (length == 0) {
+                return;
+            }
+            length--;
+            if (patterns[length]) {
+                patternCount--;
+            }
+        }
+
+        /**
+         * Очищает пароль.
+         */
+        public void reset() {
+            length = 0;
+            patternCount = 0;
+        }
+
+        /**
+         * Возвращает длину введенного пароля.
+         * @return количество символов
+         */
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Возвращает энтропию введенного пароля.
+         * @return энтропия в битах; совпадает с {@link PasswordStrength#entropyBits(CharSequence)}
+         */
+        public double entropyBits() {
+            if (length == 0) {
+                return 0;
+            }
+            return PasswordStrength.entropyBits(classesAfter[length - 1], length - patternCount, patternCount);
+        }
+
+        /**
+         * Возвращает оценку введенного пароля.
+         * @return оценка от 0 до 4
+         */
+        public int score() {
+            return scoreOf(entropyBits());
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package ru.passwordvalidator;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /** Проверка пароля на сложность.
  * Пароль должен отвечать следующим требованиям:
@@ -11,12 +11,29 @@ import java.util.List;
  * - не должен содержать пробельных символов, табуляции и кавычек
  */
 public class PasswordValidator {
-    private static final String MSG_TOO_SHORT = "Пароль должен содержать не менее 8 символов.";
-    private static final String MSG_NO_DIGIT = "Пароль должен содержать хотя бы одну цифру.";
-    private static final String MSG_NO_LOWER = "Пароль должен содержать хотя бы одну строчную букву.";
-    private static final String MSG_NO_UPPER = "Пароль должен содержать хотя бы одну заглавную букву.";
-    private static final String MSG_USERNAME_MATCH = "Пароль не должен совпадать с именем пользователя.";
-    private static final String MSG_CONTAINS_FORBIDDEN = "Пароль не должен содержать пробелы, табуляцию или кавычки (\").";
+    /** Ошибка: пароль короче минимальной длины (8 символов). */
+    public static final int ERROR_TOO_SHORT = 1;
+    /** Ошибка: в пароле нет цифр. */
+    public static final int ERROR_NO_DIGIT = 1 << 1;
+    /** Ошибка: в пароле нет строчных букв. */
+    public static final int ERROR_NO_LOWER = 1 << 2;
+    /** Ошибка: в пароле нет заглавных букв. */
+    public static final int ERROR_NO_UPPER = 1 << 3;
+    /** Ошибка: пароль совпадает с именем пользователя. */
+    public static final int ERROR_USERNAME_MATCH = 1 << 4;
+    /** Ошибка: пароль содержит запрещенные символы (пробельные символы, табуляцию или кавычки). */
+    public static final int ERROR_CONTAINS_FORBIDDEN = 1 << 5;
+    /** Ошибка: пароль длиннее максимальной длины политики ({@link PasswordPolicy}). */
+    public static final int ERROR_TOO_LONG = 1 << 6;
+    /** Ошибка: в пароле нет специальных символов ({@link PasswordPolicy}). */
+    public static final int ERROR_NO_SPECIAL = 1 << 7;
+    /** Ошибка: пароль входит в список распространенных или скомпрометированных паролей ({@link PasswordBlocklist}). */
+    public static final int ERROR_BLOCKLISTED = 1 << 8;
+    /** Ошибка: пароль содержит личные данные или похожий на них фрагмент ({@link PersonalDataSimilarity}). */
+    public static final int ERROR_SIMILAR_TO_PERSONAL_DATA = 1 << 9;
+
+    /** Правила проверки, скомпилированные в политику. */
+    private static final PasswordPolicy POLICY = PasswordPolicy.defaultPolicy();
 
     /**
      * Проверка валидности пароля
@@ -25,7 +42,7 @@ public class PasswordValidator {
      * @return возвращает true, если пароль отвечает всем требованиям
      */
     public static boolean isValidPassword(String password, String userName) {
-        return validatePassword(password, userName).isValid();
+        return checkPassword(password, userName) == 0;
     }
 
     /**
@@ -35,71 +52,81 @@ public class PasswordValidator {
      * @return ValidationResult, содержащий статус валидности и список ошибок
      */
     public static ValidationResult validatePassword(String password, String userName) {
-        List<String> errorMessages = new ArrayList<>();
-
-        if (password.length() < 8) {
-            errorMessages.add(MSG_TOO_SHORT);
-        }
-        if (!hasDigits(password)) {
-            errorMessages.add(MSG_NO_DIGIT);
-        }
-        if (!hasLowercase(password)) {
-            errorMessages.add(MSG_NO_LOWER);
-        }
-        if (!hasUppercase(password)) {
-            errorMessages.add(MSG_NO_UPPER);
-        }
-        if (password.equals(userName)) {
-            errorMessages.add(MSG_USERNAME_MATCH);
-        }
-        if (hasSpacesOrQuotes(password)) {
-            errorMessages.add(MSG_CONTAINS_FORBIDDEN);
-        }
-
-        return new ValidationResult(errorMessages.isEmpty(), errorMessages);
-    }
-
-    private static boolean hasDigits(String text) {
-        for (char symbol : text.toCharArray()) {
-            if (Character.isDigit(symbol)) {
-                return true;
-            }
-        }
-        return false;
+        return POLICY.validate(password, userName);
     }
 
-    private static boolean hasLowercase(String text) {
-        for (char symbol : text.toCharArray()) {
-            if (Character.isLowerCase(symbol)) {
-                return true;
-            }
+    /**
+     * Проверяет валидность пароля и дополнительно проверяет, не входит ли он в список запрещенных паролей.
+     * @param password пароль
+     * @param userName имя пользователя
+     * @param blocklist список распространенных и скомпрометированных паролей
+     * @return ValidationResult, содержащий статус валидности и список ошибок
+     */
+    public static ValidationResult validatePassword(String password, String userName, PasswordBlocklist blocklist) {
+        int errorMask = POLICY.check(password, userName);
+        if (blocklist.contains(password)) {
+            errorMask |= ERROR_BLOCKLISTED;
         }
-        return false;
+        return ValidationMessages.defaultMessages().result(errorMask);
     }
 
-    private static boolean hasUppercase(String text) {
-        for (char symbol : text.toCharArray()) {
-            if (Character.isUpperCase(symbol)) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Проверяет валидность пароля и возвращает общий результат с сообщениями на заданном языке.
+     * @param password пароль
+     * @param userName имя пользователя
+     * @param locale язык сообщений
+     * @return ValidationResult, содержащий статус валидности и список ошибок
+     */
+    public static ValidationResult validatePassword(String password, String userName, Locale locale) {
+        return ValidationMessages.forLocale(locale).result(POLICY.check(password, userName));
     }
 
-    private static boolean hasSpacesOrQuotes(String text) {
-        for (char symbol : text.toCharArray()) {
-            if (Character.isSpaceChar(symbol)
-                    || symbol == '\t' || symbol == '"') {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Проверяет пароль за один просмотр символов без копирования строки и создания объектов.
+     * @param password пароль
+     * @param userName имя пользователя
+     * @return битовая маска ошибок {@code ERROR_*}; 0, если пароль отвечает всем требованиям
+     */
+    public static int checkPassword(String password, String userName) {
+        return POLICY.check(password, userName);
     }
 
     /**
      * Запись (record) для хранения результата проверки.
      * @param isValid логический статус валидности
      * @param errorMessages список сообщений об ошибках (пустой, если isValid == true)
+     * @param errorMask битовая маска ошибок {@code ERROR_*} (0, если isValid == true)
      */
-    public record ValidationResult(boolean isValid, List<String> errorMessages) {}
-}
\ No newline at end of file
+    public record ValidationResult(boolean isValid, List<String> errorMessages, int errorMask) {
+
+        /**
+         * Создает результат по списку сообщений; маска восстанавливается по известным сообщениям.
+         * @param isValid логический статус валидности
+         * @param errorMessages список сообщений об ошибках
+         */
+        public ValidationResult(boolean isValid, List<String> errorMessages) {
+            this(isValid, errorMessages, maskOf(errorMessages));
+        }
+
+        /**
+         * Проверяет наличие ошибки.
+         * @param error код ошибки {@code ERROR_*}
+         * @return true, если ошибка есть в результате
+         */
+        public boolean hasError(int error) {
+            return (errorMask & error) != 0;
+        }
+
+        private static int maskOf(List<String> errorMessages) {
+            ValidationMessages messages = ValidationMessages.defaultMessages();
+            int mask = 0;
+            for (int remaining = ValidationMessages.BUILT_IN_ERRORS; remaining != 0; remaining &= remaining - 1) {
+                int error = Integer.lowestOneBit(remaining);
+                if (errorMessages.contains(messages.message(error))) {
+                    mask |= error;
+                }
+            }
+            return mask;
+        }
+    }
+}
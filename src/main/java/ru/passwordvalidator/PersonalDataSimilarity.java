@@ -0,0 +1,188 @@
+package ru.passwordvalidator;
+
+import java.util.Arrays;
+
+/** Проверка сходства пароля с личными данными: именем пользователя, адресом почты, полным именем.
+ * Атрибут делится на слова — непрерывные последовательности букв и цифр; у адреса почты
+ * учитывается только часть до символа {@code @}. Слово считается найденным в пароле, если
+ * какой-либо фрагмент пароля отличается от него без учета регистра не более чем на
+ * {@code длина слова / 4} правок (вставок, удалений или замен символов); при нуле правок
+ * это обычное вхождение. Слова короче {@link #MIN_WORD_LENGTH} символов не проверяются.
+ * <p>
+ * Поиск выполняется бит-параллельным алгоритмом Майерса: состояние столбца расстояний
+ * для слова длиной до 64 символов хранится в двух {@code long}, и каждый символ пароля
+ * обрабатывается за несколько машинных операций. Маски позиций символов строятся один раз
+ * для слова в небольшой хэш-таблице, поэтому символ пароля стоит одного поиска в ней.
+ * Таблица своя у каждого потока и переиспользуется между проверками, поэтому проверка
+ * не создает объектов и завершается, как только найдено совпадение. От более длинных слов
+ * учитываются первые 64 символа.
+ */
+public final class PersonalDataSimilarity {
+
+    /** Минимальная длина проверяемого слова. */
+    public static final int MIN_WORD_LENGTH = 3;
+
+    /** Максимальная длина слова, обрабатываемая за один проход. */
+    private static final int MAX_WORD_LENGTH = Long.SIZE;
+
+    /** Размер таблицы масок: вдвое больше наибольшего числа различных символов слова. */
+    private static final int MASK_TABLE_SIZE = 2 * MAX_WORD_LENGTH;
+
+    /** Таблица масок потока: около 1,5 КБ, поэтому не создается заново на каждую проверку. */
+    private static final ThreadLocal<MaskTable> MASK_TABLES = ThreadLocal.withInitial(MaskTable::new);
+
+    private PersonalDataSimilarity() {
+    }
+
+    /**
+     * Проверяет, содержит ли пароль слово атрибута или похожий на него фрагмент.
+     * @param password пароль
+     * @param attribute имя пользователя, полное имя или другой атрибут; null не проверяется
+     * @return true, если пароль похож на личные данные
+     */
+    public static boolean isSimilar(String password, String attribute) {
+        return attribute != null && containsSimilarWord(password, attribute, 0, attribute.length());
+    }
+
+    /**
+     * Проверяет, содержит ли пароль часть адреса почты до символа {@code @} или похожий на нее фрагмент.
+     * @param password пароль
+     * @param email адрес электронной почты; null не проверяется
+     * @return true, если пароль похож на адрес почты
+     */
+    public static boolean isSimilarToEmail(String password, String email) {
+        if (email == null) {
+            return false;
+        }
+        int at = email.indexOf('@');
+        return containsSimilarWord(password, email, 0, at < 0 ? email.length() : at);
+    }
+
+    /**
+     * Вычисляет наименьшее расстояние Левенштейна между словом и фрагментами текста без учета регистра.
+     * @param text текст
+     * @param word слово длиной не более 64 символов
+     * @return расстояние до ближайшего фрагмента; 0, если слово входит в текст
+     */
+    static int distance(String text, String word) {
+        if (word.length() > MAX_WORD_LENGTH) {
+            throw new IllegalArgumentException("Слово длиннее " + MAX_WORD_LENGTH + " символов");
+        }
+        if (word.isEmpty()) {
+            return 0;
+        }
+        MaskTable table = MASK_TABLES.get();
+        table.build(word, 0, word.length());
+        return search(text, table, word.length(), -1, word.length());
+    }
+
+    private static boolean containsSimilarWord(String password, String attribute, int from, int to) {
+        MaskTable table = null;
+        int start = from;
+        while (start < to) {
+            while (start < to && !Character.isLetterOrDigit(attribute.charAt(start))) {
+                start++;
+            }
+            int end = start;
+            while (end < to && Character.isLetterOrDigit(attribute.charAt(end))) {
+                end++;
+            }
+            int length = Math.min(end - start, MAX_WORD_LENGTH);
+            if (length >= MIN_WORD_LENGTH) {
+                if (table == null) {
+                    table = MASK_TABLES.get();
+                }
+                table.build(attribute, start, start + length);
+                if (search(password, table, length, length / 4, length) <= length / 4) {
+                    return true;
+                }
+            }
+            start = end;
+        }
+        return false;
+    }
+
+    /**
+     * Алгоритм Майерса для приближенного поиска слова в тексте.
+     * @param table таблица масок слова
+     * @param length длина слова
+     * @param limit расстояние, при достижении которого поиск прекращается
+     * @param best начальное значение результата (длина слова)
+     * @return наименьшее найденное расстояние или первое расстояние, не превышающее limit
+     */
+    private static int search(String text, MaskTable table, int length, int limit, int best) {
+        long last = 1L << (length - 1);
+        long positive = -1L;
+        long negative = 0;
+        int score = length;
+
+        for (int i = 0; i < text.length(); i++) {
+            long equal = table.maskOf(Character.toLowerCase(text.charAt(i)));
+            long vertical = equal | negative;
+            long horizontal = (((equal & positive) + positive) ^ positive) | equal;
+            long horizontalPositive = negative | ~(horizontal | positive);
+            long horizontalNegative = positive & horizontal;
+            if ((horizontalPositive & last) != 0) {
+                score++;
+            } else if ((horizontalNegative & last) != 0) {
+                score--;
+            }
+            // Начало фрагмента в тексте свободно, поэтому в младший бит сдвигается ноль.
+            horizontalPositive <<= 1;
+            horizontalNegative <<= 1;
+            positive = horizontalNegative | ~(vertical | horizontalPositive);
+            negative = horizontalPositive & vertical;
+
+            if (score < best) {
+                best = score;
+                if (best <= limit) {
+                    return best;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Таблица масок слова: для каждого различного символа в нижнем регистре — маска его позиций
+     * в слове. Открытая адресация: в {@code symbols} хранится символ плюс один, ноль означает
+     * свободную ячейку.
+     */
+    private static final class MaskTable {
+        private final int[] symbols = new int[MASK_TABLE_SIZE];
+        private final long[] masks = new long[MASK_TABLE_SIZE];
+
+        /** Заполняет таблицу для слова {@code word[from, to)}. */
+        void build(String word, int from, int to) {
+            Arrays.fill(symbols, 0);
+            for (int i = from; i < to; i++) {
+                char lower = Character.toLowerCase(word.charAt(i));
+                int slot = slotOf(lower);
+                while (symbols[slot] != 0 && symbols[slot] != lower + 1) {
+                    slot = (slot + 1) & (MASK_TABLE_SIZE - 1);
+                }
+                if (symbols[slot] == 0) {
+                    symbols[slot] = lower + 1;
+                    masks[slot] = 0;
+                }
+                masks[slot] |= 1L << (i - from);
+            }
+        }
+
+        /** Маска позиций слова, совпадающих с символом в нижнем регистре. */
+        long maskOf(char lower) {
+            int slot = slotOf(lower);
+            while (symbols[slot] != 0) {
+                if (symbols[slot] == lower + 1) {
+                    return masks[slot];
+                }
+                slot = (slot + 1) & (MASK_TABLE_SIZE - 1);
+            }
+            return 0;
+        }
+
+        private static int slotOf(char symbol) {
+            return (symbol * 0x9E3779B1) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(MASK_TABLE_SIZE));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package ru.passwordvalidator;
+
+import ru.passwordvalidator.PasswordValidator.ValidationResult;
+
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Каталог сообщений об ошибках проверки пароля для языка.
+ * Сообщения хранятся в файлах {@code ru/passwordvalidator/messages*.properties} с ключами по именам
+ * кодов {@code PasswordValidator.ERROR_*}; русские сообщения используются по умолчанию, если для
+ * языка нет своего файла. Каталог языка загружается один раз и сразу создает общие неизменяемые
+ * результаты {@link ValidationResult} для всех сочетаний встроенных кодов ошибок, поэтому
+ * проверка с ошибками возвращает готовый результат и не создает объектов.
+ * <p>
+ * Сообщения с параметрами политики (длина, запрещенные символы) хранятся в тех же файлах
+ * как шаблоны {@link MessageFormat} и используются {@link PasswordPolicy}.
+ */
+public final class ValidationMessages {
+
+    /** Ключи сообщений; индекс ключа равен номеру бита ошибки. */
+    private static final String[] KEYS = {
+            "TOO_SHORT", "NO_DIGIT", "NO_LOWER", "NO_UPPER", "USERNAME_MATCH", "CONTAINS_FORBIDDEN",
+            "TOO_LONG", "NO_SPECIAL", "BLOCKLISTED", "SIMILAR_TO_PERSONAL_DATA"
+    };
+
+    /** Все встроенные коды ошибок. */
+    public static final int BUILT_IN_ERRORS = (1 << KEYS.length) - 1;
+
+    private static final String BUNDLE = "ru.passwordvalidator.messages";
+
+    /** Общий результат для валидного пароля. */
+    static final ValidationResult VALID = new ValidationResult(true, List.of(), 0);
+
+    private static final ConcurrentHashMap<Locale, ValidationMessages> CATALOGS = new ConcurrentHashMap<>();
+
+    /** Каталог по умолчанию (русский). */
+    private static final ValidationMessages DEFAULT = forLocale(Locale.ROOT);
+
+    private final Locale locale;
+
+    private final ResourceBundle bundle;
+
+    /** Сообщения по номеру бита ошибки. */
+    private final String[] messages;
+
+    /** Результаты по маске ошибок. */
+    private final ValidationResult[] results;
+
+    private ValidationMessages(Locale locale) {
+        this.locale = locale;
+        bundle = ResourceBundle.getBundle(BUNDLE, locale,
+                ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+
+        messages = new String[KEYS.length];
+        for (int bit = 0; bit < KEYS.length; bit++) {
+            messages[bit] = bundle.getString(KEYS[bit]);
+        }
+
+        results = new ValidationResult[BUILT_IN_ERRORS + 1];
+        results[0] = VALID;
+        for (int errorMask = 1; errorMask <= BUILT_IN_ERRORS; errorMask++) {
+            String[] list = new String[Integer.bitCount(errorMask)];
+            int count = 0;
+            for (int remaining = errorMask; remaining != 0; remaining &= remaining - 1) {
+                list[count++] = messages[Integer.numberOfTrailingZeros(remaining)];
+            }
+            results[errorMask] = new ValidationResult(false, List.of(list), errorMask);
+        }
+    }
+
+    /**
+     * Возвращает каталог по умолчанию с русскими сообщениями.
+     * @return каталог по умолчанию
+     */
+    public static ValidationMessages defaultMessages() {
+        return DEFAULT;
+    }
+
+    /**
+     * Возвращает каталог для языка; каталог загружается при первом обращении.
+     * @param locale язык
+     * @return каталог языка или каталог по умолчанию, если для языка нет сообщений
+     */
+    public static ValidationMessages forLocale(Locale locale) {
+        return CATALOGS.computeIfAbsent(locale, ValidationMessages::new);
+    }
+
+    /**
+     * Возвращает сообщение об ошибке.
+     * @param error встроенный код ошибки {@code ERROR_*}
+     * @return текст сообщения
+     * @throws IllegalArgumentException если код не является одним встроенным кодом
+     */
+    public String message(int error) {
+        if (Integer.bitCount(error) != 1 || (error & BUILT_IN_ERRORS) == 0) {
+            throw new IllegalArgumentException("Неизвестный код ошибки: " + error);
+        }
+        return messages[Integer.numberOfTrailingZeros(error)];
+    }
+
+    /**
+     * Возвращает общий результат проверки для маски ошибок.
+     * @param errorMask битовая маска встроенных кодов ошибок; 0 для валидного пароля
+     * @return неизменяемый результат со статусом, сообщениями в порядке кодов и маской
+     * @throws IllegalArgumentException если маска содержит не встроенные коды
+     */
+    public ValidationResult result(int errorMask) {
+        if ((errorMask & ~BUILT_IN_ERRORS) != 0) {
+            throw new IllegalArgumentException("Неизвестные коды ошибок: " + errorMask);
+        }
+        return results[errorMask];
+    }
+
+    /**
+     * Сообщение о минимальной длине пароля.
+     * @param length минимальное количество символов
+     * @return текст сообщения
+     */
+    String minLength(int length) {
+        return format("MIN_LENGTH", length, characters(length));
+    }
+
+    /**
+     * Сообщение о максимальной длине пароля.
+     * @param length максимальное количество символов
+     * @return текст сообщения
+     */
+    String maxLength(int length) {
+        return format("MAX_LENGTH", length, characters(length));
+    }
+
+    /**
+     * Сообщение о запрещенных символах политики.
+     * @param spaces запрещены ли также пробельные символы, табуляция и кавычки
+     * @param characters перечень запрещенных символов
+     * @return текст сообщения
+     */
+    String forbidden(boolean spaces, String characters) {
+        return format(spaces ? "FORBIDDEN_SPACES_AND_CHARACTERS" : "FORBIDDEN_CHARACTERS", characters);
+    }
+
+    /**
+     * Форма слова «символ» после числа. В файле по умолчанию (русском) форма CHARACTERS_ONE
+     * используется для 1, 21, 31… кроме 11, в остальных файлах — только для 1.
+     */
+    private String characters(int count) {
+        boolean one = bundle.getLocale().getLanguage().isEmpty()
+                ? count % 10 == 1 && count % 100 != 11
+                : count == 1;
+        return bundle.getString(one ? "CHARACTERS_ONE" : "CHARACTERS_MANY");
+    }
+
+    private String format(String key, Object... arguments) {
+        return new MessageFormat(bundle.getString(key), locale).format(arguments);
+    }
+
+    /**
+     * Возвращает язык, для которого запрошен каталог.
+     * @return язык
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+}
@@ -0,0 +1,271 @@
+package ru.vat;
+
+import java.math.BigDecimal;
+import java.nio.LongBuffer;
+
+/**
+ * Пакетный расчет НДС над ценами в копейках без создания объектов на каждую позицию.
+ * <p>
+ * Цены передаются как {@code long} копеек (массивами или {@link LongBuffer}), результаты
+ * записываются в выходные массивы. Расчет выполняется целочисленно и дает те же значения,
+ * что и {@link Vat#getPriceWithVat()}, {@link Vat#getPriceWithoutVat()},
+ * {@link Vat#getVatForReceipt()} и {@link Vat#getVatForDeclaration()}:
+ * <ul>
+ *     <li>суммы для чека — в копейках, округление до копеек HALF_UP;</li>
+ *     <li>НДС для декларации — в целых рублях, округление HALF_UP.</li>
+ * </ul>
+ * Для цены с НДС используется то же целочисленное деление, что и в быстром расчете
+ * {@link Vat#fromPriceWithVat(BigDecimal, VatRate)}.
+ */
+public class BulkVatCalculator {
+
+    /** Единица измерения ставки: 100% в базисных пунктах. */
+    private static final long BASIS = VatRate.BASIS;
+
+    /** Максимальная цена в копейках, при которой промежуточные произведения помещаются в {@code long}. */
+    public static final long MAX_KOPECKS = (Long.MAX_VALUE - 4 * BASIS * 100) / (4 * BASIS);
+
+    /** Ставка НДС в базисных пунктах. */
+    private final long rate;
+
+    /** Множитель полной цены в базисных пунктах (100% + ставка). */
+    private final long multiplier;
+
+    /**
+     * Создает калькулятор со ставкой НДС 20%.
+     */
+    public BulkVatCalculator() {
+        this(VatRate.STANDARD);
+    }
+
+    /**
+     * Создает калькулятор с заданной ставкой.
+     * @param rate Ставка НДС.
+     */
+    public BulkVatCalculator(VatRate rate) {
+        this.rate = rate.getBasisPoints();
+        this.multiplier = rate.getMultiplierBasisPoints();
+    }
+
+    /**
+     * Переводит цену в рублях в копейки без потери точности.
+     * @param price Цена в рублях, не более двух знаков после запятой.
+     * @return Цена в копейках.
+     * @throws ArithmeticException Если у цены больше двух значащих знаков после запятой или она слишком велика.
+     */
+    public static long toKopecks(BigDecimal price) {
+        return price.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Рассчитывает полную стоимость с НДС по цене без НДС, как {@link Vat#getPriceWithVat()}.
+     * @param priceWithoutVat Цена без НДС в копейках.
+     * @return Цена с НДС в копейках.
+     */
+    public long priceWithVat(long priceWithoutVat) {
+        checkPrice(priceWithoutVat);
+        return divideHalfUp(priceWithoutVat * multiplier, BASIS);
+    }
+
+    /**
+     * Рассчитывает НДС для чека по цене без НДС, как {@link Vat#getVatForReceipt()}.
+     * @param priceWithoutVat Цена без НДС в копейках.
+     * @return НДС в копейках.
+     */
+    public long vatForReceipt(long priceWithoutVat) {
+        checkPrice(priceWithoutVat);
+        return divideHalfUp(priceWithoutVat * rate, BASIS);
+    }
+
+    /**
+     * Рассчитывает НДС для декларации по цене без НДС, как {@link Vat#getVatForDeclaration()}.
+     * @param priceWithoutVat Цена без НДС в копейках.
+     * @return НДС в целых рублях.
+     */
+    public long vatForDeclaration(long priceWithoutVat) {
+        checkPrice(priceWithoutVat);
+        return divideHalfUp(priceWithoutVat * rate, BASIS * 100);
+    }
+
+    /**
+     * Рассчитывает стоимость без НДС по цене с НДС, как {@code Vat.fromPriceWithVat(...).getPriceWithoutVat()}.
+     * @param priceWithVat Цена с НДС в копейках.
+     * @return Цена без НДС в копейках.
+     */
+    public long priceWithoutVatFromGross(long priceWithVat) {
+        checkPrice(priceWithVat);
+        return divideHalfUp(priceWithVat * BASIS, multiplier);
+    }
+
+    /**
+     * Рассчитывает НДС для чека по цене с НДС, как {@code Vat.fromPriceWithVat(...).getVatForReceipt()}.
+     * @param priceWithVat Цена с НДС в копейках.
+     * @return НДС в копейках.
+     */
+    public long vatForReceiptFromGross(long priceWithVat) {
+        checkPrice(priceWithVat);
+        return divideHalfUp(priceWithVat * rate, multiplier);
+    }
+
+    /**
+     * Рассчитывает НДС для декларации по цене с НДС, как {@code Vat.fromPriceWithVat(...).getVatForDeclaration()}.
+     * @param priceWithVat Цена с НДС в копейках.
+     * @return НДС в целых рублях.
+     */
+    public long vatForDeclarationFromGross(long priceWithVat) {
+        checkPrice(priceWithVat);
+        return divideHalfUp(priceWithVat * rate, multiplier * 100);
+    }
+
+    /**
+     * Рассчитывает суммы для массива цен без НДС.
+     * Любой выходной массив может быть {@code null}, тогда соответствующая сумма не вычисляется.
+     * @param pricesWithoutVat Цены без НДС в копейках.
+     * @param pricesWithVat Выход: цены с НДС в копейках.
+     * @param vatForReceipt Выход: НДС для чека в копейках.
+     * @param vatForDeclaration Выход: НДС для декларации в рублях.
+     * @throws IllegalArgumentException Если цена отрицательна, слишком велика или длины массивов не совпадают.
+     */
+    public void fromPricesWithoutVat(long[] pricesWithoutVat, long[] pricesWithVat,
+                                     long[] vatForReceipt, long[] vatForDeclaration) {
+        int count = pricesWithoutVat.length;
+        checkLength(count, pricesWithVat, vatForReceipt, vatForDeclaration);
+
+        for (int i = 0; i < count; i++) {
+            long price = pricesWithoutVat[i];
+            checkPrice(price);
+            if (pricesWithVat != null) {
+                pricesWithVat[i] = divideHalfUp(price * multiplier, BASIS);
+            }
+            if (vatForReceipt != null) {
+                vatForReceipt[i] = divideHalfUp(price * rate, BASIS);
+            }
+            if (vatForDeclaration != null) {
+                vatForDeclaration[i] = divideHalfUp(price * rate, BASIS * 100);
+            }
+        }
+    }
+
+    /**
+     * Рассчитывает суммы для массива цен с НДС.
+     * Любой выходной массив может быть {@code null}, тогда соответствующая сумма не вычисляется.
+     * @param pricesWithVat Цены с НДС в копейках.
+     * @param pricesWithoutVat Выход: цены без НДС в копейках.
+     * @param vatForReceipt Выход: НДС для чека в копейках.
+     * @param vatForDeclaration Выход: НДС для декларации в рублях.
+     * @throws IllegalArgumentException Если цена отрицательна, слишком велика или длины массивов не совпадают.
+     */
+    public void fromPricesWithVat(long[] pricesWithVat, long[] pricesWithoutVat,
+                                  long[] vatForReceipt, long[] vatForDeclaration) {
+        int count = pricesWithVat.length;
+        checkLength(count, pricesWithoutVat, vatForReceipt, vatForDeclaration);
+
+        for (int i = 0; i < count; i++) {
+            long price = pricesWithVat[i];
+            checkPrice(price);
+            if (pricesWithoutVat != null) {
+                pricesWithoutVat[i] = divideHalfUp(price * BASIS, multiplier);
+            }
+            if (vatForReceipt != null) {
+                vatForReceipt[i] = divideHalfUp(price * rate, multiplier);
+            }
+            if (vatForDeclaration != null) {
+                vatForDeclaration[i] = divideHalfUp(price * rate, multiplier * 100);
+            }
+        }
+    }
+
+    /**
+     * Рассчитывает суммы для столбца цен без НДС от текущей позиции до границы буфера.
+     * Позиции входного и выходных буферов сдвигаются на число обработанных цен.
+     * Любой выходной буфер может быть {@code null}.
+     * @param pricesWithoutVat Цены без НДС в копейках.
+     * @param pricesWithVat Выход: цены с НДС в копейках.
+     * @param vatForReceipt Выход: НДС для чека в копейках.
+     * @param vatForDeclaration Выход: НДС для декларации в рублях.
+     */
+    public void fromPricesWithoutVat(LongBuffer pricesWithoutVat, LongBuffer pricesWithVat,
+                                     LongBuffer vatForReceipt, LongBuffer vatForDeclaration) {
+        int count = pricesWithoutVat.remaining();
+        checkRemaining(count, pricesWithVat, vatForReceipt, vatForDeclaration);
+
+        for (int i = 0; i < count; i++) {
+            long price = pricesWithoutVat.get();
+            checkPrice(price);
+            if (pricesWithVat != null) {
+                pricesWithVat.put(divideHalfUp(price * multiplier, BASIS));
+            }
+            if (vatForReceipt != null) {
+                vatForReceipt.put(divideHalfUp(price * rate, BASIS));
+            }
+            if (vatForDeclaration != null) {
+                vatForDeclaration.put(divideHalfUp(price * rate, BASIS * 100));
+            }
+        }
+    }
+
+    /**
+     * Рассчитывает суммы для столбца цен с НДС от текущей позиции до границы буфера.
+     * Позиции входного и выходных буферов сдвигаются на число обработанных цен.
+     * Любой выходной буфер может быть {@code null}.
+     * @param pricesWithVat Цены с НДС в копейках.
+     * @param pricesWithoutVat Выход: цены без НДС в копейках.
+     * @param vatForReceipt Выход: НДС для чека в копейках.
+     * @param vatForDeclaration Выход: НДС для декларации в рублях.
+     */
+    public void fromPricesWithVat(LongBuffer pricesWithVat, LongBuffer pricesWithoutVat,
+                                  LongBuffer vatForReceipt, LongBuffer vatForDeclaration) {
+        int count = pricesWithVat.remaining();
+        checkRemaining(count, pricesWithoutVat, vatForReceipt, vatForDeclaration);
+
+        for (int i = 0; i < count; i++) {
+            long price = pricesWithVat.get();
+            checkPrice(price);
+            if (pricesWithoutVat != null) {
+                pricesWithoutVat.put(divideHalfUp(price * BASIS, multiplier));
+            }
+            if (vatForReceipt != null) {
+                vatForReceipt.put(divideHalfUp(price * rate, multiplier));
+            }
+            if (vatForDeclaration != null) {
+                vatForDeclaration.put(divideHalfUp(price * rate, multiplier * 100));
+            }
+        }
+    }
+
+    /**
+     * Делит неотрицательное число с округлением HALF_UP.
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        return (2 * dividend + divisor) / (2 * divisor);
+    }
+
+    /**
+     * Проверяет, что цена неотрицательна и не приводит к переполнению.
+     * @throws IllegalArgumentException Если цена вне допустимого диапазона.
+     */
+    static void checkPrice(long price) {
+        if (price < 0) {
+            throw new IllegalArgumentException("Цена не может быть отрицательной");
+        }
+        if (price > MAX_KOPECKS) {
+            throw new IllegalArgumentException("Цена слишком велика для расчета в копейках");
+        }
+    }
+
+    private static void checkLength(int count, long[]... outputs) {
+        for (long[] output : outputs) {
+            if (output != null && output.length != count) {
+                throw new IllegalArgumentException("Длина выходного массива не совпадает с числом цен");
+            }
+        }
+    }
+
+    private static void checkRemaining(int count, LongBuffer... outputs) {
+        for (LongBuffer output : outputs) {
+            if (output != null && output.remaining() < count) {
+                throw new IllegalArgumentException("В выходном буфере недостаточно места");
+            }
+        }
+    }
+}
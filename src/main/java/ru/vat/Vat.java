@@ -8,22 +8,45 @@ import java.math.RoundingMode;
  * Реализует логику округления сумм до копеек (чек) и до рублей (декларация).
  */
 public class Vat {
-    /** Ставка НДС, 20% (0.20). */
-    private static final BigDecimal VAT_RATE = new BigDecimal("0.20");
+    /** Признак отсутствия цены в копейках: расчет выполняется через BigDecimal. */
+    private static final long NO_KOPECKS = -1;
 
-    /** Множитель для полной цены (1 + VAT_RATE), 1.20. */
-    private static final BigDecimal VAT_MULTIPLIER = new BigDecimal("1.20");
+    /** Максимальная цена с НДС для расчета в копейках. */
+    private static final BigDecimal MAX_KOPECK_PRICE = BigDecimal.valueOf(BulkVatCalculator.MAX_KOPECKS, 2);
 
-    /** Неизменяемая стоимость товара без НДС. */
+    /** Неизменяемая стоимость товара без НДС или {@code null}, если задана цена с НДС в копейках. */
     private final BigDecimal priceWithoutVat;
 
+    /** Стоимость товара с НДС в копейках или {@link #NO_KOPECKS}. */
+    private final long priceWithVatKopecks;
+
+    /** Ставка НДС. */
+    private final VatRate rate;
+
+    /** Суммы расчета, вычисленные при первом обращении. */
+    private VatAmounts amounts;
+
     /**
      * Приватный конструктор, который используется фабричными методами.
      * @param priceWithoutVat Стоимость товара без НДС.
+     * @param rate Ставка НДС.
      */
-    private Vat(BigDecimal priceWithoutVat) {
+    private Vat(BigDecimal priceWithoutVat, VatRate rate) {
         validatePrice(priceWithoutVat);
         this.priceWithoutVat = priceWithoutVat;
+        this.priceWithVatKopecks = NO_KOPECKS;
+        this.rate = rate;
+    }
+
+    /**
+     * Приватный конструктор для цены с НДС, заданной целым числом копеек.
+     * @param priceWithVatKopecks Стоимость товара с НДС в копейках.
+     * @param rate Ставка НДС.
+     */
+    private Vat(long priceWithVatKopecks, VatRate rate) {
+        this.priceWithoutVat = null;
+        this.priceWithVatKopecks = priceWithVatKopecks;
+        this.rate = rate;
     }
 
     /**
@@ -38,28 +61,94 @@ public class Vat {
     }
 
     /**
-     * Фабричный метод для создания объекта Vat на основе цены, не включающей НДС.
+     * Фабричный метод для создания объекта Vat на основе цены, не включающей НДС, по ставке 20%.
      * @param price Стоимость товара без НДС.
      * @return Новый экземпляр Vat.
      */
     public static Vat fromPriceWithoutVat(BigDecimal price) {
-        return new Vat(price);
+        return fromPriceWithoutVat(price, VatRate.STANDARD);
     }
 
     /**
-     * Фабричный метод для создания объекта Vat на основе цены, включающей НДС.
+     * Фабричный метод для создания объекта Vat на основе цены, не включающей НДС.
+     * @param price Стоимость товара без НДС.
+     * @param rate Ставка НДС.
+     * @return Новый экземпляр Vat.
+     */
+    public static Vat fromPriceWithoutVat(BigDecimal price, VatRate rate) {
+        return new Vat(price, rate);
+    }
+
+    /**
+     * Фабричный метод для создания объекта Vat на основе цены, включающей НДС, по ставке 20%.
      * Выполняет обратный расчет цены без НДС с высокой точностью (15 знаков).
      * @param price Стоимость товара с НДС.
      * @return Новый экземпляр Vat.
      */
     public static Vat fromPriceWithVat(BigDecimal price) {
+        return fromPriceWithVat(price, VatRate.STANDARD);
+    }
+
+    /**
+     * Фабричный метод для создания объекта Vat на основе цены, включающей НДС.
+     * Выполняет обратный расчет цены без НДС с высокой точностью (15 знаков).
+     * <p>
+     * Цены в целых копейках рассчитываются без деления BigDecimal: суммы получаются
+     * целочисленным делением с округлением HALF_UP и совпадают с результатом деления
+     * до 15 знаков. Дробная часть точного результата кратна {@code 1/(1 + ставка)} копейки,
+     * поэтому ошибка 15-го знака не может перенести значение через половину копейки,
+     * а ровно половина получается только при конечной дроби, которая делится без ошибки.
+     * @param price Стоимость товара с НДС.
+     * @param rate Ставка НДС.
+     * @return Новый экземпляр Vat.
+     */
+    public static Vat fromPriceWithVat(BigDecimal price, VatRate rate) {
+        validatePrice(price);
+
+        if (price.scale() <= 2 && price.compareTo(MAX_KOPECK_PRICE) <= 0) {
+            return new Vat(price.movePointRight(2).longValue(), rate);
+        }
+        return fromPriceWithVatExact(price, rate);
+    }
+
+    /**
+     * Создает объект Vat по цене с НДС делением BigDecimal до 15 знаков, без быстрого расчета в копейках.
+     * @param price Стоимость товара с НДС.
+     * @param rate Ставка НДС.
+     * @return Новый экземпляр Vat.
+     */
+    static Vat fromPriceWithVatExact(BigDecimal price, VatRate rate) {
         validatePrice(price);
 
         BigDecimal calculatedPriceWithoutVat = price.divide(
-                VAT_MULTIPLIER, 15, RoundingMode.HALF_UP
+                rate.getMultiplier(), 15, RoundingMode.HALF_UP
         );
 
-        return new Vat(calculatedPriceWithoutVat);
+        return new Vat(calculatedPriceWithoutVat, rate);
+    }
+
+    /**
+     * Возвращает ставку НДС, по которой выполняются расчеты.
+     * @return Ставка НДС.
+     */
+    public VatRate getRate() {
+        return rate;
+    }
+
+    /**
+     * Возвращает все суммы расчета. Суммы вычисляются при первом обращении к этому методу
+     * или к любому из геттеров сумм и затем переиспользуются.
+     * @return Суммы расчета.
+     */
+    public VatAmounts computeAll() {
+        // Гонка при первом вычислении безопасна: результат детерминирован, а запись
+        // с final-полями публикуется целиком, поэтому поле не требует volatile.
+        VatAmounts result = amounts;
+        if (result == null) {
+            result = priceWithVatKopecks != NO_KOPECKS ? computeFromKopecks() : computeFromPrice();
+            amounts = result;
+        }
+        return result;
     }
 
     /**
@@ -67,8 +156,7 @@ public class Vat {
      * @return Полная стоимость с НДС (два знака после запятой).
      */
     public BigDecimal getPriceWithVat() {
-        return priceWithoutVat.multiply(VAT_MULTIPLIER)
-                .setScale(2, RoundingMode.HALF_UP);
+        return computeAll().priceWithVat();
     }
 
     /**
@@ -76,8 +164,7 @@ public class Vat {
      * @return Стоимость без НДС (два знака после запятой).
      */
     public BigDecimal getPriceWithoutVat() {
-        return priceWithoutVat
-                .setScale(2, RoundingMode.HALF_UP);
+        return computeAll().priceWithoutVat();
     }
 
     /**
@@ -85,8 +172,7 @@ public class Vat {
      * @return Сумма НДС для чека (два знака после запятой).
      */
     public BigDecimal getVatForReceipt() {
-        return priceWithoutVat.multiply(VAT_RATE)
-                .setScale(2, RoundingMode.HALF_UP);
+        return computeAll().vatForReceipt();
     }
 
     /**
@@ -95,7 +181,40 @@ public class Vat {
      * @return Сумма НДС для декларации.
      */
     public BigDecimal getVatForDeclaration() {
-        return priceWithoutVat.multiply(VAT_RATE)
-                .setScale(0, RoundingMode.HALF_UP);
+        return computeAll().vatForDeclaration();
+    }
+
+    /**
+     * Рассчитывает суммы по цене без НДС; произведение на ставку вычисляется один раз.
+     */
+    private VatAmounts computeFromPrice() {
+        BigDecimal vat = priceWithoutVat.multiply(rate.getRate());
+        return new VatAmounts(
+                priceWithoutVat.multiply(rate.getMultiplier()).setScale(2, RoundingMode.HALF_UP),
+                priceWithoutVat.setScale(2, RoundingMode.HALF_UP),
+                vat.setScale(2, RoundingMode.HALF_UP),
+                vat.setScale(0, RoundingMode.HALF_UP)
+        );
+    }
+
+    /**
+     * Рассчитывает суммы по цене с НДС в копейках.
+     */
+    private VatAmounts computeFromKopecks() {
+        return new VatAmounts(
+                BigDecimal.valueOf(priceWithVatKopecks, 2),
+                BigDecimal.valueOf(fromGross(VatRate.BASIS, 1), 2),
+                BigDecimal.valueOf(fromGross(rate.getBasisPoints(), 1), 2),
+                BigDecimal.valueOf(fromGross(rate.getBasisPoints(), 100))
+        );
+    }
+
+    /**
+     * Рассчитывает долю цены с НДС в копейках: {@code цена * share / (множитель * unit)} с округлением HALF_UP.
+     * @param share Доля в базисных пунктах (10000 для цены без НДС, ставка для НДС).
+     * @param unit Единица результата в копейках (1 для копеек, 100 для рублей).
+     */
+    private long fromGross(long share, long unit) {
+        return BulkVatCalculator.divideHalfUp(priceWithVatKopecks * share, rate.getMultiplierBasisPoints() * unit);
     }
 }
\ No newline at end of file
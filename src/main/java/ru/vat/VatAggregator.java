@@ -0,0 +1,214 @@
+package ru.vat;
+
+/**
+ * Потоковое суммирование НДС по строкам счета или за период для одной ставки.
+ * <p>
+ * НДС строк накапливается точно: целые копейки и остаток в долях копейки со знаменателем
+ * {@code 10000 * (10000 + ставка)}, поэтому итог не зависит от округления отдельных строк.
+ * Округление выполняется один раз для итога:
+ * <ul>
+ *     <li>НДС для чека — до копеек HALF_UP от точной суммы;</li>
+ *     <li>НДС для декларации — до рублей HALF_UP от точной суммы, а не сумма
+ *     округленных до рублей значений {@link Vat#getVatForDeclaration()}.</li>
+ * </ul>
+ * Разница округления распределяется по строкам нарастающим итогом: доля строки равна
+ * разности округленных итогов после и до ее добавления, поэтому сумма долей строк всегда
+ * равна округленному итогу. Память не зависит от количества строк.
+ * <p>
+ * Итоги за период получаются слиянием итогов счетов ({@link #merge(VatAggregator)}): НДС для чека
+ * складывается из уже напечатанных сумм счетов, НДС для декларации округляется от точной суммы периода.
+ * Все суммы в копейках, кроме НДС для декларации в рублях. Класс не потокобезопасен.
+ */
+public class VatAggregator {
+
+    /** Ставка НДС. */
+    private final VatRate rate;
+
+    /** Ставка в базисных пунктах. */
+    private final long rateBasisPoints;
+
+    /** Множитель полной цены в базисных пунктах. */
+    private final long multiplier;
+
+    /** Знаменатель остатка: доля копейки, общая для цен с НДС и без НДС. */
+    private final long denominator;
+
+    /** Целые копейки точной суммы НДС. */
+    private long vatKopecks;
+
+    /** Остаток точной суммы НДС в долях копейки, от 0 до {@link #denominator} - 1. */
+    private long vatRemainder;
+
+    /** Сумма долей НДС строк для чека. */
+    private long receiptVat;
+
+    /** Сумма стоимостей строк без НДС. */
+    private long totalPriceWithoutVat;
+
+    /** Сумма стоимостей строк с НДС. */
+    private long totalPriceWithVat;
+
+    /** Количество строк. */
+    private long lineCount;
+
+    /** Доля последней добавленной строки в НДС для декларации. */
+    private long lastDeclarationShare;
+
+    /**
+     * Создает пустой итог для ставки.
+     * @param rate Ставка НДС.
+     */
+    public VatAggregator(VatRate rate) {
+        this.rate = rate;
+        this.rateBasisPoints = rate.getBasisPoints();
+        this.multiplier = rate.getMultiplierBasisPoints();
+        this.denominator = VatRate.BASIS * multiplier;
+    }
+
+    /**
+     * Добавляет строку с ценой без НДС.
+     * @param priceWithoutVat Цена без НДС в копейках.
+     * @return Доля строки в НДС для чека в копейках.
+     * @throws IllegalArgumentException Если цена отрицательна или слишком велика.
+     */
+    public long addNet(long priceWithoutVat) {
+        BulkVatCalculator.checkPrice(priceWithoutVat);
+
+        long vat = priceWithoutVat * rateBasisPoints;
+        long share = accumulate(vat / VatRate.BASIS, (vat % VatRate.BASIS) * multiplier);
+
+        totalPriceWithoutVat = Math.addExact(totalPriceWithoutVat, priceWithoutVat);
+        totalPriceWithVat = Math.addExact(totalPriceWithVat, priceWithoutVat + share);
+        return share;
+    }
+
+    /**
+     * Добавляет строку с ценой, включающей НДС.
+     * @param priceWithVat Цена с НДС в копейках.
+     * @return Доля строки в НДС для чека в копейках.
+     * @throws IllegalArgumentException Если цена отрицательна или слишком велика.
+     */
+    public long addGross(long priceWithVat) {
+        BulkVatCalculator.checkPrice(priceWithVat);
+
+        long vat = priceWithVat * rateBasisPoints;
+        long share = accumulate(vat / multiplier, (vat % multiplier) * VatRate.BASIS);
+
+        totalPriceWithoutVat = Math.addExact(totalPriceWithoutVat, priceWithVat - share);
+        totalPriceWithVat = Math.addExact(totalPriceWithVat, priceWithVat);
+        return share;
+    }
+
+    /**
+     * Возвращает долю последней добавленной строки в НДС для декларации.
+     * Сумма долей всех строк равна {@link #getTotalVatForDeclaration()}.
+     * @return Доля в рублях.
+     */
+    public long getLastDeclarationShare() {
+        return lastDeclarationShare;
+    }
+
+    /**
+     * Добавляет итоги другого счета или периода с той же ставкой.
+     * @param other Итог для слияния.
+     * @throws IllegalArgumentException Если ставки различаются.
+     */
+    public void merge(VatAggregator other) {
+        if (other.rate != rate) {
+            throw new IllegalArgumentException("Нельзя объединить итоги по ставкам " + rate + " и " + other.rate);
+        }
+
+        vatKopecks = Math.addExact(vatKopecks, other.vatKopecks);
+        vatRemainder += other.vatRemainder;
+        if (vatRemainder >= denominator) {
+            vatRemainder -= denominator;
+            vatKopecks++;
+        }
+        receiptVat = Math.addExact(receiptVat, other.receiptVat);
+        totalPriceWithoutVat = Math.addExact(totalPriceWithoutVat, other.totalPriceWithoutVat);
+        totalPriceWithVat = Math.addExact(totalPriceWithVat, other.totalPriceWithVat);
+        lineCount += other.lineCount;
+        lastDeclarationShare = 0;
+    }
+
+    /**
+     * Возвращает ставку итога.
+     * @return Ставка НДС.
+     */
+    public VatRate getRate() {
+        return rate;
+    }
+
+    /**
+     * Возвращает количество добавленных строк.
+     * @return Число строк.
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Возвращает итог без НДС.
+     * @return Сумма в копейках.
+     */
+    public long getTotalPriceWithoutVat() {
+        return totalPriceWithoutVat;
+    }
+
+    /**
+     * Возвращает итог с НДС; он равен итогу без НДС плюс НДС для чека.
+     * @return Сумма в копейках.
+     */
+    public long getTotalPriceWithVat() {
+        return totalPriceWithVat;
+    }
+
+    /**
+     * Возвращает НДС для чека: сумму долей строк.
+     * @return Сумма НДС в копейках.
+     */
+    public long getTotalVatForReceipt() {
+        return receiptVat;
+    }
+
+    /**
+     * Возвращает НДС для декларации, округленный до рублей от точной суммы.
+     * @return Сумма НДС в рублях.
+     */
+    public long getTotalVatForDeclaration() {
+        return roundToRubles(vatKopecks, vatRemainder);
+    }
+
+    /**
+     * Добавляет точный НДС строки и возвращает ее долю при округлении нарастающего итога.
+     * @param kopecks Целые копейки НДС строки.
+     * @param remainder Доли копейки НДС строки со знаменателем {@link #denominator}.
+     * @return Доля строки в НДС для чека.
+     */
+    private long accumulate(long kopecks, long remainder) {
+        long roundedBefore = roundToKopecks(vatKopecks, vatRemainder);
+        long rublesBefore = roundToRubles(vatKopecks, vatRemainder);
+
+        vatKopecks = Math.addExact(vatKopecks, kopecks);
+        vatRemainder += remainder;
+        if (vatRemainder >= denominator) {
+            vatRemainder -= denominator;
+            vatKopecks++;
+        }
+        lineCount++;
+
+        long share = roundToKopecks(vatKopecks, vatRemainder) - roundedBefore;
+        lastDeclarationShare = roundToRubles(vatKopecks, vatRemainder) - rublesBefore;
+        receiptVat += share;
+        return share;
+    }
+
+    private long roundToKopecks(long kopecks, long remainder) {
+        return 2 * remainder >= denominator ? kopecks + 1 : kopecks;
+    }
+
+    private long roundToRubles(long kopecks, long remainder) {
+        long rubles = kopecks / 100;
+        return (kopecks % 100) * denominator + remainder >= 50 * denominator ? rubles + 1 : rubles;
+    }
+}
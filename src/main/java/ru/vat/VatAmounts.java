@@ -0,0 +1,14 @@
+package ru.vat;
+
+import java.math.BigDecimal;
+
+/**
+ * Все суммы расчета {@link Vat}, вычисленные за один раз.
+ * @param priceWithVat Полная стоимость с НДС, округленная до копеек.
+ * @param priceWithoutVat Стоимость без НДС, округленная до копеек.
+ * @param vatForReceipt Сумма НДС для чека, округленная до копеек.
+ * @param vatForDeclaration Сумма НДС для декларации, округленная до рублей.
+ */
+public record VatAmounts(BigDecimal priceWithVat, BigDecimal priceWithoutVat,
+                         BigDecimal vatForReceipt, BigDecimal vatForDeclaration) {
+}
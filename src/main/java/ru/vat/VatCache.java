@@ -0,0 +1,175 @@
+package ru.vat;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченный потокобезопасный кэш общих экземпляров {@link Vat} для часто повторяющихся цен.
+ * <p>
+ * Ключ кэша — цена (с учетом масштаба {@link BigDecimal}), ставка и признак того, включает ли
+ * цена НДС. Экземпляры {@link Vat} неизменяемы и запоминают вычисленные суммы, поэтому один
+ * экземпляр безопасно разделяется между потоками и строками заказов.
+ * <p>
+ * Кэш разделен на сегменты со своей блокировкой; каждый сегмент — {@link LinkedHashMap}
+ * в порядке доступа, из которого при переполнении вытесняется давно не использованная запись (LRU).
+ * Счетчики попаданий, промахов и вытеснений ведутся в {@link LongAdder}.
+ */
+public class VatCache {
+
+    /** Максимальное количество сегментов. */
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Создает кэш заданного размера.
+     * @param maxSize Максимальное количество экземпляров в кэше.
+     * @throws IllegalArgumentException Если размер не положителен.
+     */
+    public VatCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        int segmentCount = Integer.highestOneBit(Math.min(MAX_SEGMENTS, maxSize));
+        int segmentCapacity = (maxSize + segmentCount - 1) / segmentCount;
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Возвращает общий экземпляр Vat для цены без НДС по ставке 20%.
+     * @param price Стоимость товара без НДС.
+     * @return Экземпляр Vat, равный {@link Vat#fromPriceWithoutVat(BigDecimal)}.
+     */
+    public Vat fromPriceWithoutVat(BigDecimal price) {
+        return get(price, VatRate.STANDARD, false);
+    }
+
+    /**
+     * Возвращает общий экземпляр Vat для цены без НДС.
+     * @param price Стоимость товара без НДС.
+     * @param rate Ставка НДС.
+     * @return Экземпляр Vat, равный {@link Vat#fromPriceWithoutVat(BigDecimal, VatRate)}.
+     */
+    public Vat fromPriceWithoutVat(BigDecimal price, VatRate rate) {
+        return get(price, rate, false);
+    }
+
+    /**
+     * Возвращает общий экземпляр Vat для цены с НДС по ставке 20%.
+     * @param price Стоимость товара с НДС.
+     * @return Экземпляр Vat, равный {@link Vat#fromPriceWithVat(BigDecimal)}.
+     */
+    public Vat fromPriceWithVat(BigDecimal price) {
+        return get(price, VatRate.STANDARD, true);
+    }
+
+    /**
+     * Возвращает общий экземпляр Vat для цены с НДС.
+     * @param price Стоимость товара с НДС.
+     * @param rate Ставка НДС.
+     * @return Экземпляр Vat, равный {@link Vat#fromPriceWithVat(BigDecimal, VatRate)}.
+     */
+    public Vat fromPriceWithVat(BigDecimal price, VatRate rate) {
+        return get(price, rate, true);
+    }
+
+    /**
+     * Возвращает количество попаданий в кэш.
+     * @return Число попаданий.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает количество промахов, то есть созданных экземпляров.
+     * @return Число промахов.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Возвращает количество вытесненных записей.
+     * @return Число вытеснений.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Возвращает текущее количество записей.
+     * @return Размер кэша.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Vat get(BigDecimal price, VatRate rate, boolean withVat) {
+        Key key = new Key(price, rate, withVat);
+        int hash = key.hashCode();
+        Segment segment = segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+
+        Vat cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        // Экземпляр создается вне блокировки: создание проверяет цену и может быть дорогим.
+        Vat created = withVat ? Vat.fromPriceWithVat(price, rate) : Vat.fromPriceWithoutVat(price, rate);
+        misses.increment();
+        synchronized (segment) {
+            cached = segment.putIfAbsent(key, created);
+        }
+        return cached != null ? cached : created;
+    }
+
+    /**
+     * Ключ кэша.
+     */
+    private record Key(BigDecimal price, VatRate rate, boolean withVat) {
+    }
+
+    /**
+     * Сегмент кэша: таблица в порядке доступа с вытеснением давно не использованной записи.
+     */
+    @SuppressWarnings("serial")
+    private final class Segment extends LinkedHashMap<Key, Vat> {
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Vat> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package ru.vat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Преобразование книги операций из CSV в двоичный столбцовый формат {@link VatLedgerWriter}.
+ * <p>
+ * Каждая строка CSV содержит цену без НДС в рублях (точка как десятичный разделитель,
+ * не более двух знаков после точки) и номер категории ставки, разделенные запятой,
+ * точкой с запятой или табуляцией. Пустые строки пропускаются, первая строка пропускается,
+ * если она не начинается с цифры (заголовок). Цены переводятся в копейки прямо из байтов,
+ * без создания строк и {@link java.math.BigDecimal}.
+ * <p>
+ * Запуск: {@code java ru.vat.VatLedgerCsvConverter <input.csv|-> <output.vldg>}.
+ */
+public final class VatLedgerCsvConverter {
+
+    /** Размер буфера чтения. */
+    private static final int READ_BUFFER = 1 << 16;
+
+    /** Предел рублей при разборе: защищает от переполнения до проверки цены в копейках. */
+    private static final long MAX_RUBLES = BulkVatCalculator.MAX_KOPECKS / 100;
+
+    private VatLedgerCsvConverter() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Использование: java ru.vat.VatLedgerCsvConverter <input.csv|-> <output.vldg>");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        long rows;
+        try (VatLedgerWriter writer = VatLedgerWriter.create(Path.of(args[1]))) {
+            if ("-".equals(args[0])) {
+                rows = convert(System.in, writer);
+            } else {
+                try (InputStream in = Files.newInputStream(Path.of(args[0]))) {
+                    rows = convert(in, writer);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка ввода-вывода: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Строк: %d, время: %.2f с, %.0f строк/с%n", rows, seconds, rows / Math.max(seconds, 1e-9));
+    }
+
+    /**
+     * Читает CSV из потока и записывает строки книги.
+     * @param csv Поток CSV в кодировке ASCII или UTF-8.
+     * @param writer Писатель книги.
+     * @return Количество записанных строк.
+     * @throws IOException Если поток не удалось прочитать или строка CSV содержит ошибку.
+     */
+    public static long convert(InputStream csv, VatLedgerWriter writer) throws IOException {
+        byte[] buffer = new byte[READ_BUFFER];
+        byte[] line = new byte[128];
+        int lineLength = 0;
+        long lineNumber = 0;
+        long rows = 0;
+
+        int read;
+        while ((read = csv.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                byte current = buffer[i];
+                if (current == '\n') {
+                    lineNumber++;
+                    rows += convertLine(line, lineLength, lineNumber, writer);
+                    lineLength = 0;
+                } else {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, lineLength << 1);
+                    }
+                    line[lineLength++] = current;
+                }
+            }
+        }
+        if (lineLength > 0) {
+            rows += convertLine(line, lineLength, lineNumber + 1, writer);
+        }
+        return rows;
+    }
+
+    /**
+     * Разбирает одну строку CSV и записывает ее.
+     * @return 1, если строка записана, 0 для пустой строки или заголовка.
+     */
+    private static int convertLine(byte[] line, int length, long lineNumber, VatLedgerWriter writer) throws IOException {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        int i = skipSpaces(line, 0, length);
+        if (i == length) {
+            return 0;
+        }
+        if (line[i] == '-' || line[i] == '+') {
+            throw new IOException("Строка " + lineNumber + ": цена указывается без знака");
+        }
+        if (lineNumber == 1 && !isDigit(line[i]) && line[i] != '.') {
+            return 0;
+        }
+
+        long rubles = 0;
+        int digits = 0;
+        while (i < length && isDigit(line[i])) {
+            rubles = rubles * 10 + (line[i] - '0');
+            if (rubles > MAX_RUBLES) {
+                throw new IOException("Строка " + lineNumber + ": цена слишком велика");
+            }
+            digits++;
+            i++;
+        }
+
+        long kopecks = rubles * 100;
+        if (i < length && line[i] == '.') {
+            i++;
+            int scale = 0;
+            while (i < length && isDigit(line[i])) {
+                if (scale == 2) {
+                    throw new IOException("Строка " + lineNumber + ": больше двух знаков после точки в цене");
+                }
+                kopecks += (line[i] - '0') * (scale == 0 ? 10 : 1);
+                scale++;
+                digits++;
+                i++;
+            }
+        }
+        if (kopecks > BulkVatCalculator.MAX_KOPECKS) {
+            throw new IOException("Строка " + lineNumber + ": цена слишком велика");
+        }
+        if (digits == 0) {
+            throw new IOException("Строка " + lineNumber + ": неверная цена");
+        }
+
+        i = skipSpaces(line, i, length);
+        if (i == length || (line[i] != ',' && line[i] != ';' && line[i] != '\t')) {
+            throw new IOException("Строка " + lineNumber + ": ожидался разделитель после цены");
+        }
+        i = skipSpaces(line, i + 1, length);
+
+        long category = 0;
+        int categoryStart = i;
+        while (i < length && isDigit(line[i])) {
+            category = category * 10 + (line[i] - '0');
+            if (category > Integer.MAX_VALUE) {
+                throw new IOException("Строка " + lineNumber + ": слишком большой номер категории");
+            }
+            i++;
+        }
+        if (i == categoryStart || skipSpaces(line, i, length) != length) {
+            throw new IOException("Строка " + lineNumber + ": неверный номер категории");
+        }
+
+        writer.write(kopecks, (int) category);
+        return 1;
+    }
+
+    private static int skipSpaces(byte[] line, int from, int to) {
+        while (from < to && line[from] == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
+    }
+}
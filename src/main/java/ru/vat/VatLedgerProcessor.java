@@ -0,0 +1,190 @@
+package ru.vat;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Параллельный пересчет НДС по книге операций.
+ * <p>
+ * Книга задается столбцами: цены без НДС в копейках и номера категорий ставок — массивами
+ * или буферами, например отображенными в память блоками {@link VatLedgerReader}.
+ * Каждая строка рассчитывается так же, как {@code Vat.fromPriceWithoutVat(цена, ставка)},
+ * а значения суммируются по категориям. Диапазон строк делится пополам до порогового размера,
+ * каждая задача fork-join накапливает суммы в собственном массиве, и массивы складываются
+ * при объединении задач. Суммы целочисленные, поэтому результат не зависит от разбиения
+ * и совпадает с последовательным расчетом {@link #processSequential(long[], int[])}.
+ */
+public class VatLedgerProcessor {
+
+    /** Количество строк, ниже которого диапазон обрабатывается одной задачей. */
+    private static final int SPLIT_THRESHOLD = 1 << 16;
+
+    /** Ставки категорий в базисных пунктах. */
+    private final long[] rates;
+
+    /** Множители полной цены категорий в базисных пунктах. */
+    private final long[] multipliers;
+
+    /**
+     * Создает обработчик для набора категорий.
+     * @param categoryRates Ставки категорий: номер категории равен индексу ставки.
+     * @throws IllegalArgumentException Если не задано ни одной категории.
+     */
+    public VatLedgerProcessor(VatRate... categoryRates) {
+        if (categoryRates.length == 0) {
+            throw new IllegalArgumentException("Не задано ни одной категории НДС");
+        }
+        rates = new long[categoryRates.length];
+        multipliers = new long[categoryRates.length];
+        for (int i = 0; i < categoryRates.length; i++) {
+            rates[i] = categoryRates[i].getBasisPoints();
+            multipliers[i] = categoryRates[i].getMultiplierBasisPoints();
+        }
+    }
+
+    /**
+     * Пересчитывает книгу в общем пуле fork-join.
+     * @param pricesWithoutVat Цены без НДС в копейках.
+     * @param categories Номера категорий строк.
+     * @return Итоги по категориям.
+     * @throws IllegalArgumentException Если столбцы разной длины, цена отрицательна или категория неизвестна.
+     */
+    public VatLedgerTotals process(long[] pricesWithoutVat, int[] categories) {
+        return process(pricesWithoutVat, categories, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Пересчитывает книгу в заданном пуле fork-join.
+     * @param pricesWithoutVat Цены без НДС в копейках.
+     * @param categories Номера категорий строк.
+     * @param pool Пул потоков.
+     * @return Итоги по категориям.
+     * @throws IllegalArgumentException Если столбцы разной длины, цена отрицательна или категория неизвестна.
+     */
+    public VatLedgerTotals process(long[] pricesWithoutVat, int[] categories, ForkJoinPool pool) {
+        return process(LongBuffer.wrap(pricesWithoutVat), IntBuffer.wrap(categories), pool);
+    }
+
+    /**
+     * Пересчитывает столбцы от текущей позиции до границы буферов в общем пуле fork-join.
+     * Позиции буферов не изменяются.
+     * @param pricesWithoutVat Цены без НДС в копейках.
+     * @param categories Номера категорий строк.
+     * @return Итоги по категориям.
+     * @throws IllegalArgumentException Если столбцы разной длины, цена отрицательна или категория неизвестна.
+     */
+    public VatLedgerTotals process(LongBuffer pricesWithoutVat, IntBuffer categories) {
+        return process(pricesWithoutVat, categories, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Пересчитывает столбцы от текущей позиции до границы буферов в заданном пуле fork-join.
+     * Позиции буферов не изменяются.
+     * @param pricesWithoutVat Цены без НДС в копейках.
+     * @param categories Номера категорий строк.
+     * @param pool Пул потоков.
+     * @return Итоги по категориям.
+     * @throws IllegalArgumentException Если столбцы разной длины, цена отрицательна или категория неизвестна.
+     */
+    public VatLedgerTotals process(LongBuffer pricesWithoutVat, IntBuffer categories, ForkJoinPool pool) {
+        checkLength(pricesWithoutVat, categories);
+        LongBuffer prices = pricesWithoutVat.slice();
+        IntBuffer rowCategories = categories.slice();
+        return new VatLedgerTotals(pool.invoke(new LedgerTask(prices, rowCategories, 0, prices.limit())));
+    }
+
+    /**
+     * Пересчитывает книгу в текущем потоке.
+     * @param pricesWithoutVat Цены без НДС в копейках.
+     * @param categories Номера категорий строк.
+     * @return Итоги по категориям.
+     * @throws IllegalArgumentException Если столбцы разной длины, цена отрицательна или категория неизвестна.
+     */
+    public VatLedgerTotals processSequential(long[] pricesWithoutVat, int[] categories) {
+        return processSequential(LongBuffer.wrap(pricesWithoutVat), IntBuffer.wrap(categories));
+    }
+
+    /**
+     * Пересчитывает столбцы от текущей позиции до границы буферов в текущем потоке.
+     * Позиции буферов не изменяются.
+     * @param pricesWithoutVat Цены без НДС в копейках.
+     * @param categories Номера категорий строк.
+     * @return Итоги по категориям.
+     * @throws IllegalArgumentException Если столбцы разной длины, цена отрицательна или категория неизвестна.
+     */
+    public VatLedgerTotals processSequential(LongBuffer pricesWithoutVat, IntBuffer categories) {
+        checkLength(pricesWithoutVat, categories);
+        LongBuffer prices = pricesWithoutVat.slice();
+        long[] sums = new long[rates.length * VatLedgerTotals.FIELDS];
+        accumulate(prices, categories.slice(), 0, prices.limit(), sums);
+        return new VatLedgerTotals(sums);
+    }
+
+    /**
+     * Добавляет строки диапазона к суммам по категориям.
+     */
+    private void accumulate(LongBuffer prices, IntBuffer categories, int from, int to, long[] sums) {
+        for (int i = from; i < to; i++) {
+            long price = prices.get(i);
+            int category = categories.get(i);
+            BulkVatCalculator.checkPrice(price);
+            if (category < 0 || category >= rates.length) {
+                throw new IllegalArgumentException("Неизвестная категория НДС " + category + " в строке " + i);
+            }
+
+            long vat = price * rates[category];
+            int base = category * VatLedgerTotals.FIELDS;
+            sums[base + VatLedgerTotals.ROWS]++;
+            sums[base + VatLedgerTotals.PRICE_WITHOUT_VAT] = Math.addExact(sums[base + VatLedgerTotals.PRICE_WITHOUT_VAT], price);
+            sums[base + VatLedgerTotals.PRICE_WITH_VAT] = Math.addExact(sums[base + VatLedgerTotals.PRICE_WITH_VAT],
+                    BulkVatCalculator.divideHalfUp(price * multipliers[category], VatRate.BASIS));
+            sums[base + VatLedgerTotals.VAT_FOR_RECEIPT] = Math.addExact(sums[base + VatLedgerTotals.VAT_FOR_RECEIPT],
+                    BulkVatCalculator.divideHalfUp(vat, VatRate.BASIS));
+            sums[base + VatLedgerTotals.VAT_FOR_DECLARATION] = Math.addExact(sums[base + VatLedgerTotals.VAT_FOR_DECLARATION],
+                    BulkVatCalculator.divideHalfUp(vat, VatRate.BASIS * 100));
+        }
+    }
+
+    private static void checkLength(LongBuffer prices, IntBuffer categories) {
+        if (prices.remaining() != categories.remaining()) {
+            throw new IllegalArgumentException("Длина столбца категорий не совпадает с числом цен");
+        }
+    }
+
+    /**
+     * Задача пересчета диапазона строк; результат — суммы по категориям.
+     */
+    @SuppressWarnings("serial")
+    private final class LedgerTask extends RecursiveTask<long[]> {
+
+        private final LongBuffer prices;
+        private final IntBuffer categories;
+        private final int from;
+        private final int to;
+
+        LedgerTask(LongBuffer prices, IntBuffer categories, int from, int to) {
+            this.prices = prices;
+            this.categories = categories;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                long[] sums = new long[rates.length * VatLedgerTotals.FIELDS];
+                accumulate(prices, categories, from, to, sums);
+                return sums;
+            }
+
+            int middle = (from + to) >>> 1;
+            LedgerTask left = new LedgerTask(prices, categories, from, middle);
+            left.fork();
+            long[] sums = new LedgerTask(prices, categories, middle, to).compute();
+            VatLedgerTotals.add(sums, left.join());
+            return sums;
+        }
+    }
+}
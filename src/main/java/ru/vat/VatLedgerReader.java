@@ -0,0 +1,165 @@
+package ru.vat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Чтение книги операций, записанной {@link VatLedgerWriter}.
+ * <p>
+ * Блоки отображаются в память только для чтения, а столбцы возвращаются как представления
+ * {@link LongBuffer} и {@link IntBuffer} над отображением, без копирования и разбора значений.
+ * При открытии читаются только заголовки блоков.
+ */
+public class VatLedgerReader implements Closeable {
+
+    private final FileChannel channel;
+
+    /** Смещения блоков в файле. */
+    private final long[] blockOffsets;
+
+    /** Количество строк в блоках. */
+    private final int[] blockRowCounts;
+
+    /** Общее количество строк. */
+    private final long rowCount;
+
+    private VatLedgerReader(FileChannel channel, long[] blockOffsets, int[] blockRowCounts, long rowCount) {
+        this.channel = channel;
+        this.blockOffsets = blockOffsets;
+        this.blockRowCounts = blockRowCounts;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Открывает файл книги.
+     * @param file Путь к файлу.
+     * @return Открытый читатель.
+     * @throws IOException Если файл не удалось прочитать или он поврежден.
+     */
+    public static VatLedgerReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(VatLedgerWriter.FILE_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            if (size < VatLedgerWriter.FILE_HEADER || channel.read(header, 0) != VatLedgerWriter.FILE_HEADER
+                    || header.getInt(0) != VatLedgerWriter.MAGIC || header.getInt(4) != VatLedgerWriter.VERSION) {
+                throw new IOException("Неизвестный формат файла книги: " + file);
+            }
+
+            long[] offsets = new long[16];
+            int[] rowCounts = new int[16];
+            int blockCount = 0;
+            long rows = 0;
+            long offset = VatLedgerWriter.FILE_HEADER;
+            ByteBuffer blockHeader = ByteBuffer.allocate(VatLedgerWriter.BLOCK_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (offset < size) {
+                blockHeader.clear();
+                if (size - offset < VatLedgerWriter.BLOCK_HEADER || channel.read(blockHeader, offset) != VatLedgerWriter.BLOCK_HEADER) {
+                    throw new IOException("Файл книги поврежден: неполный заголовок блока");
+                }
+                int blockRows = blockHeader.getInt(0);
+                long blockSize = VatLedgerWriter.BLOCK_HEADER + (long) blockRows * VatLedgerWriter.ROW_BYTES;
+                if (blockRows <= 0 || size - offset < blockSize) {
+                    throw new IOException("Файл книги поврежден: неверный блок по смещению " + offset);
+                }
+
+                if (blockCount == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, blockCount << 1);
+                    rowCounts = Arrays.copyOf(rowCounts, blockCount << 1);
+                }
+                offsets[blockCount] = offset;
+                rowCounts[blockCount] = blockRows;
+                blockCount++;
+                rows += blockRows;
+                offset += blockSize;
+            }
+
+            return new VatLedgerReader(channel, Arrays.copyOf(offsets, blockCount), Arrays.copyOf(rowCounts, blockCount), rows);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает общее количество строк.
+     * @return Число строк.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Возвращает количество блоков.
+     * @return Число блоков.
+     */
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Возвращает количество строк блока.
+     * @param block Номер блока.
+     * @return Число строк.
+     */
+    public int getBlockRowCount(int block) {
+        return blockRowCounts[block];
+    }
+
+    /**
+     * Возвращает столбец цен блока без копирования.
+     * @param block Номер блока.
+     * @return Цены без НДС в копейках.
+     * @throws IOException Если блок не удалось отобразить в память.
+     */
+    public LongBuffer prices(int block) throws IOException {
+        int rows = blockRowCounts[block];
+        return map(block, VatLedgerWriter.BLOCK_HEADER, (long) rows * Long.BYTES).asLongBuffer();
+    }
+
+    /**
+     * Возвращает столбец категорий блока без копирования.
+     * @param block Номер блока.
+     * @return Номера категорий ставок.
+     * @throws IOException Если блок не удалось отобразить в память.
+     */
+    public IntBuffer categories(int block) throws IOException {
+        int rows = blockRowCounts[block];
+        return map(block, VatLedgerWriter.BLOCK_HEADER + (long) rows * Long.BYTES, (long) rows * Integer.BYTES).asIntBuffer();
+    }
+
+    /**
+     * Пересчитывает всю книгу по блокам и складывает итоги.
+     * @param processor Обработчик с ставками категорий.
+     * @return Итоги по категориям.
+     * @throws IOException Если блок не удалось отобразить в память.
+     */
+    public VatLedgerTotals process(VatLedgerProcessor processor) throws IOException {
+        VatLedgerTotals totals = processor.processSequential(new long[0], new int[0]);
+        for (int block = 0; block < blockOffsets.length; block++) {
+            totals = totals.plus(processor.process(prices(block), categories(block)));
+        }
+        return totals;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer map(int block, long offset, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, blockOffsets[block] + offset, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
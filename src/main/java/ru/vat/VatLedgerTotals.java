@@ -0,0 +1,136 @@
+package ru.vat;
+
+import java.util.Arrays;
+
+/**
+ * Итоги пересчета НДС по книге операций в разрезе категорий ставок.
+ * <p>
+ * Для каждой категории хранятся количество строк и суммы построчных значений {@link Vat}:
+ * цены без НДС и с НДС и НДС для чека в копейках, НДС для декларации в рублях.
+ * Экземпляры неизменяемы.
+ */
+public final class VatLedgerTotals {
+
+    /** Количество сумм на одну категорию. */
+    static final int FIELDS = 5;
+
+    static final int ROWS = 0;
+    static final int PRICE_WITHOUT_VAT = 1;
+    static final int PRICE_WITH_VAT = 2;
+    static final int VAT_FOR_RECEIPT = 3;
+    static final int VAT_FOR_DECLARATION = 4;
+
+    /** Суммы: категория {@code c} занимает элементы с {@code c * FIELDS} по {@code c * FIELDS + FIELDS - 1}. */
+    private final long[] sums;
+
+    /**
+     * Создает итоги из накопленных сумм; массив не копируется.
+     * @param sums Суммы по категориям.
+     */
+    VatLedgerTotals(long[] sums) {
+        this.sums = sums;
+    }
+
+    /**
+     * Складывает суммы двух накопителей поэлементно.
+     * @param target Накопитель, в который добавляются суммы.
+     * @param source Добавляемые суммы.
+     * @throws ArithmeticException При переполнении суммы.
+     */
+    static void add(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = Math.addExact(target[i], source[i]);
+        }
+    }
+
+    /**
+     * Складывает итоги, например итоги блоков одной книги или книг за период.
+     * @param other Итоги с тем же количеством категорий.
+     * @return Новые итоги.
+     * @throws IllegalArgumentException Если количество категорий различается.
+     */
+    public VatLedgerTotals plus(VatLedgerTotals other) {
+        if (other.sums.length != sums.length) {
+            throw new IllegalArgumentException("Нельзя сложить итоги с разным количеством категорий");
+        }
+        long[] result = sums.clone();
+        add(result, other.sums);
+        return new VatLedgerTotals(result);
+    }
+
+    /**
+     * Возвращает количество категорий.
+     * @return Число категорий.
+     */
+    public int getCategoryCount() {
+        return sums.length / FIELDS;
+    }
+
+    /**
+     * Возвращает количество строк категории.
+     * @param category Номер категории.
+     * @return Число строк.
+     */
+    public long getRowCount(int category) {
+        return sums[category * FIELDS + ROWS];
+    }
+
+    /**
+     * Возвращает сумму цен без НДС категории.
+     * @param category Номер категории.
+     * @return Сумма в копейках.
+     */
+    public long getPriceWithoutVat(int category) {
+        return sums[category * FIELDS + PRICE_WITHOUT_VAT];
+    }
+
+    /**
+     * Возвращает сумму цен с НДС категории.
+     * @param category Номер категории.
+     * @return Сумма в копейках.
+     */
+    public long getPriceWithVat(int category) {
+        return sums[category * FIELDS + PRICE_WITH_VAT];
+    }
+
+    /**
+     * Возвращает сумму НДС для чека категории.
+     * @param category Номер категории.
+     * @return Сумма в копейках.
+     */
+    public long getVatForReceipt(int category) {
+        return sums[category * FIELDS + VAT_FOR_RECEIPT];
+    }
+
+    /**
+     * Возвращает сумму построчного НДС для декларации категории.
+     * @param category Номер категории.
+     * @return Сумма в рублях.
+     */
+    public long getVatForDeclaration(int category) {
+        return sums[category * FIELDS + VAT_FOR_DECLARATION];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof VatLedgerTotals other && Arrays.equals(sums, other.sums);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(sums);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("VatLedgerTotals[");
+        for (int category = 0; category < getCategoryCount(); category++) {
+            if (category > 0) {
+                result.append(", ");
+            }
+            result.append(category).append(": строк ").append(getRowCount(category))
+                    .append(", НДС ").append(getVatForReceipt(category)).append(" коп.");
+        }
+        return result.append(']').toString();
+    }
+}
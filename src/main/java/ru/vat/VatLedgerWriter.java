@@ -0,0 +1,167 @@
+package ru.vat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Запись книги операций в двоичный столбцовый формат для пакетного пересчета НДС.
+ * <p>
+ * Формат файла (порядок байтов little-endian):
+ * <ul>
+ *     <li>заголовок 16 байт: сигнатура "VLDG", версия, 8 байт резерва;</li>
+ *     <li>блоки строк, каждый из которых начинается с 8-байтового заголовка (количество строк и резерв),
+ *     за ним столбец цен без НДС ({@code long} копеек на строку) и столбец категорий ставок
+ *     ({@code int} на строку).</li>
+ * </ul>
+ * Блок отображается в память целиком, значения пишутся прямо в отображение. Последний
+ * неполный блок при закрытии уплотняется: столбец категорий сдвигается вплотную к столбцу цен,
+ * а файл усекается. Класс не потокобезопасен.
+ */
+public class VatLedgerWriter implements Closeable {
+
+    /** Сигнатура файла: "VLDG". */
+    static final int MAGIC = 0x474C4456;
+    static final int VERSION = 1;
+
+    /** Размер заголовка файла. */
+    static final int FILE_HEADER = 16;
+
+    /** Размер заголовка блока. */
+    static final int BLOCK_HEADER = 8;
+
+    /** Размер строки в блоке: цена и категория. */
+    static final int ROW_BYTES = Long.BYTES + Integer.BYTES;
+
+    /** Количество строк в блоке по умолчанию (около 12 МБ). */
+    static final int DEFAULT_BLOCK_ROWS = 1 << 20;
+
+    private final FileChannel channel;
+
+    /** Количество строк в полном блоке. */
+    private final int blockRows;
+
+    /** Отображение текущего блока. */
+    private MappedByteBuffer block;
+
+    /** Смещение текущего блока в файле. */
+    private long blockStart;
+
+    /** Количество строк в текущем блоке. */
+    private int rowsInBlock;
+
+    /** Общее количество записанных строк. */
+    private long rowCount;
+
+    private VatLedgerWriter(FileChannel channel, int blockRows) {
+        this.channel = channel;
+        this.blockRows = blockRows;
+        this.blockStart = FILE_HEADER;
+    }
+
+    /**
+     * Создает файл книги, заменяя существующий.
+     * @param file Путь к файлу.
+     * @return Открытый писатель.
+     * @throws IOException Если файл не удалось создать.
+     */
+    public static VatLedgerWriter create(Path file) throws IOException {
+        return create(file, DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * Создает файл книги с заданным размером блока.
+     * @param file Путь к файлу.
+     * @param blockRows Количество строк в блоке.
+     * @return Открытый писатель.
+     * @throws IOException Если файл не удалось создать.
+     */
+    static VatLedgerWriter create(Path file, int blockRows) throws IOException {
+        if (blockRows < 1 || blockRows > (Integer.MAX_VALUE - BLOCK_HEADER) / ROW_BYTES) {
+            throw new IllegalArgumentException("Неверный размер блока: " + blockRows);
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(0).flip();
+            channel.write(header, 0);
+            return new VatLedgerWriter(channel, blockRows);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Добавляет строку книги.
+     * @param priceWithoutVat Цена без НДС в копейках.
+     * @param category Номер категории ставки.
+     * @throws IOException Если не удалось отобразить новый блок.
+     * @throws IllegalArgumentException Если цена или категория отрицательны.
+     */
+    public void write(long priceWithoutVat, int category) throws IOException {
+        if (priceWithoutVat < 0) {
+            throw new IllegalArgumentException("Цена не может быть отрицательной");
+        }
+        if (category < 0) {
+            throw new IllegalArgumentException("Номер категории не может быть отрицательным");
+        }
+
+        if (block == null) {
+            block = channel.map(FileChannel.MapMode.READ_WRITE, blockStart, BLOCK_HEADER + (long) blockRows * ROW_BYTES);
+            block.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        block.putLong(BLOCK_HEADER + rowsInBlock * Long.BYTES, priceWithoutVat);
+        block.putInt(BLOCK_HEADER + blockRows * Long.BYTES + rowsInBlock * Integer.BYTES, category);
+        rowsInBlock++;
+        rowCount++;
+
+        if (rowsInBlock == blockRows) {
+            block.putInt(0, rowsInBlock);
+            blockStart += block.capacity();
+            block = null;
+            rowsInBlock = 0;
+        }
+    }
+
+    /**
+     * Возвращает количество записанных строк.
+     * @return Число строк.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Завершает последний блок, усекает файл и сбрасывает данные на диск.
+     * @throws IOException Если запись не удалась.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long end = blockStart;
+            if (block != null) {
+                int categoriesFrom = BLOCK_HEADER + blockRows * Long.BYTES;
+                int categoriesTo = BLOCK_HEADER + rowsInBlock * Long.BYTES;
+                for (int i = 0; i < rowsInBlock; i++) {
+                    block.putInt(categoriesTo + i * Integer.BYTES, block.getInt(categoriesFrom + i * Integer.BYTES));
+                }
+                block.putInt(0, rowsInBlock);
+                block.force();
+                end += BLOCK_HEADER + (long) rowsInBlock * ROW_BYTES;
+                block = null;
+            }
+            channel.truncate(end);
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+}
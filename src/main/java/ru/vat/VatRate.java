@@ -0,0 +1,110 @@
+package ru.vat;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ставка НДС с заранее вычисленными значениями для расчетов.
+ * <p>
+ * Экземпляры неизменяемы и интернированы: для одной ставки всегда возвращается один и тот же
+ * объект, поэтому доля, множитель и их целочисленные представления вычисляются один раз.
+ * Ставка хранится в базисных пунктах (сотых долях процента), от 0 до 10000 (100%).
+ */
+public final class VatRate {
+
+    /** Единица измерения ставки: 100% в базисных пунктах. */
+    static final long BASIS = 10_000;
+
+    /** Интернированные ставки. */
+    private static final ConcurrentMap<Integer, VatRate> RATES = new ConcurrentHashMap<>();
+
+    /** Основная ставка 20%. */
+    public static final VatRate STANDARD = ofBasisPoints(2000);
+
+    /** Пониженная ставка 10%. */
+    public static final VatRate REDUCED = ofBasisPoints(1000);
+
+    /** Нулевая ставка 0%. */
+    public static final VatRate ZERO = ofBasisPoints(0);
+
+    /** Ставка в базисных пунктах. */
+    private final int basisPoints;
+
+    /** Доля НДС, например 0.20. */
+    private final BigDecimal rate;
+
+    /** Множитель для полной цены (1 + ставка), например 1.20. */
+    private final BigDecimal multiplier;
+
+    private VatRate(int basisPoints) {
+        this.basisPoints = basisPoints;
+        this.rate = BigDecimal.valueOf(basisPoints, 4);
+        this.multiplier = BigDecimal.valueOf(BASIS + basisPoints, 4);
+    }
+
+    /**
+     * Возвращает ставку по значению в базисных пунктах.
+     * @param basisPoints Ставка в сотых долях процента, например 2000 для 20%.
+     * @return Интернированный экземпляр ставки.
+     * @throws IllegalArgumentException Если ставка вне диапазона от 0% до 100%.
+     */
+    public static VatRate ofBasisPoints(int basisPoints) {
+        if (basisPoints < 0 || basisPoints > BASIS) {
+            throw new IllegalArgumentException("Ставка НДС должна быть от 0% до 100%");
+        }
+        VatRate cached = RATES.get(basisPoints);
+        return cached != null ? cached : RATES.computeIfAbsent(basisPoints, VatRate::new);
+    }
+
+    /**
+     * Возвращает ставку по значению в процентах.
+     * @param percent Ставка в процентах, не более двух знаков после запятой, например 20 или 8.5.
+     * @return Интернированный экземпляр ставки.
+     * @throws IllegalArgumentException Если ставка вне диапазона или слишком точная.
+     */
+    public static VatRate ofPercent(BigDecimal percent) {
+        try {
+            return ofBasisPoints(percent.movePointRight(2).intValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Ставка НДС должна задаваться с точностью до сотых долей процента");
+        }
+    }
+
+    /**
+     * Возвращает ставку в базисных пунктах.
+     * @return Ставка в сотых долях процента.
+     */
+    public int getBasisPoints() {
+        return basisPoints;
+    }
+
+    /**
+     * Возвращает долю НДС.
+     * @return Ставка в виде доли, например 0.20.
+     */
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    /**
+     * Возвращает множитель для полной цены.
+     * @return Множитель (1 + ставка), например 1.20.
+     */
+    public BigDecimal getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Возвращает множитель для полной цены в базисных пунктах для целочисленных расчетов.
+     * @return Множитель, например 12000 для 20%.
+     */
+    long getMultiplierBasisPoints() {
+        return BASIS + basisPoints;
+    }
+
+    @Override
+    public String toString() {
+        return rate.movePointRight(2).stripTrailingZeros().toPlainString() + "%";
+    }
+}
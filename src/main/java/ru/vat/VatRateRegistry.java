@@ -0,0 +1,83 @@
+package ru.vat;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Таблица ставок НДС по категориям товаров и датам вступления в силу.
+ * <p>
+ * Для каждой категории хранится история ставок: ставка действует с даты регистрации
+ * до даты следующей ставки той же категории. Поиск возвращает интернированный
+ * {@link VatRate}, поэтому создание {@link Vat} не требует повторной подготовки ставки.
+ * Регистрация и поиск потокобезопасны.
+ */
+public class VatRateRegistry {
+
+    /** Категория основной ставки. */
+    public static final String STANDARD = "standard";
+
+    /** Категория пониженной ставки (отдельные продовольственные, детские, медицинские товары). */
+    public static final String REDUCED = "reduced";
+
+    /** Категория нулевой ставки (экспорт). */
+    public static final String ZERO = "zero";
+
+    /** История ставок по категориям: дата вступления в силу и ставка. */
+    private final ConcurrentMap<String, NavigableMap<LocalDate, VatRate>> categories = new ConcurrentHashMap<>();
+
+    /**
+     * Создает пустую таблицу ставок.
+     */
+    public VatRateRegistry() {
+    }
+
+    /**
+     * Создает таблицу с российскими ставками: основная 18% с 2004 года и 20% с 2019 года,
+     * пониженная 10% и нулевая 0%.
+     * @return Новая таблица ставок.
+     */
+    public static VatRateRegistry withDefaults() {
+        LocalDate since2004 = LocalDate.of(2004, 1, 1);
+        return new VatRateRegistry()
+                .register(STANDARD, since2004, VatRate.ofBasisPoints(1800))
+                .register(STANDARD, LocalDate.of(2019, 1, 1), VatRate.STANDARD)
+                .register(REDUCED, since2004, VatRate.REDUCED)
+                .register(ZERO, since2004, VatRate.ZERO);
+    }
+
+    /**
+     * Регистрирует ставку категории, действующую с указанной даты.
+     * Ставка, уже зарегистрированная на эту дату, заменяется.
+     * @param category Категория товаров.
+     * @param effectiveFrom Дата вступления ставки в силу.
+     * @param rate Ставка.
+     * @return Эта таблица для цепочки вызовов.
+     */
+    public VatRateRegistry register(String category, LocalDate effectiveFrom, VatRate rate) {
+        categories.computeIfAbsent(category, key -> new ConcurrentSkipListMap<>()).put(effectiveFrom, rate);
+        return this;
+    }
+
+    /**
+     * Возвращает ставку категории, действующую на указанную дату.
+     * @param category Категория товаров.
+     * @param date Дата операции.
+     * @return Ставка.
+     * @throws IllegalArgumentException Если категория неизвестна или на дату нет действующей ставки.
+     */
+    public VatRate rateFor(String category, LocalDate date) {
+        NavigableMap<LocalDate, VatRate> history = categories.get(category);
+        if (history == null) {
+            throw new IllegalArgumentException("Неизвестная категория НДС: " + category);
+        }
+        Map.Entry<LocalDate, VatRate> entry = history.floorEntry(date);
+        if (entry == null) {
+            throw new IllegalArgumentException("Для категории " + category + " нет ставки на " + date);
+        }
+        return entry.getValue();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.duplicates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactDuplicateInputCheckTest {
+
+    @Test
+    @DisplayName("Поведение совпадает с DuplicateInputCheck на случайном потоке")
+    void shouldMatchDuplicateInputCheck() {
+        DuplicateInputCheck expected = new DuplicateInputCheck();
+        CompactDuplicateInputCheck actual = new CompactDuplicateInputCheck();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            String input = randomInput(random);
+            assertEquals(expected.checkInput(input), actual.checkInput(input), "Ввод: " + input);
+        }
+        assertEquals(expected.getCounter(), actual.getCounter());
+    }
+
+    @ParameterizedTest(name = "Строка: {0}")
+    @ValueSource(strings = {"", "a", "Привет", "日本語", "emoji 😀", "\uD800", "\uDC00\uD800"})
+    @DisplayName("Строки с любыми символами, включая непарные суррогаты, различаются точно")
+    void shouldStoreAnyStringExactly(String input) throws AlreadyExistsException {
+        CompactDuplicateInputCheck inputCheck = new CompactDuplicateInputCheck();
+
+        inputCheck.addInput(input);
+        inputCheck.addInput(input + "x");
+        inputCheck.addInput("?");
+
+        AlreadyExistsException ex = assertThrows(AlreadyExistsException.class, () -> inputCheck.addInput(input));
+        assertEquals(input, ex.getValue());
+        assertEquals(1, ex.getPosition());
+    }
+
+    @Test
+    @DisplayName("Поиск по байтам UTF-8 находит ключи, добавленные строкой")
+    void shouldFindStringKeysByBytes() {
+        CompactStringIndex index = new CompactStringIndex();
+        index.putIfAbsent("ключ", 5);
+
+        ByteBuffer buffer = ByteBuffer.wrap("--ключ--".getBytes(StandardCharsets.UTF_8));
+        int length = "ключ".getBytes(StandardCharsets.UTF_8).length;
+
+        assertEquals(5, index.get(buffer, 2, length));
+        assertEquals(5, index.putIfAbsent(buffer, 2, length, 9));
+        assertEquals(CompactStringIndex.ABSENT, index.putIfAbsent(buffer, 0, 2, 9));
+        assertEquals(9, index.get("--"));
+        assertEquals("ключ", index.keyAt(0));
+    }
+
+    @Test
+    @DisplayName("Длинные ключи больше блока хранятся корректно")
+    void shouldStoreKeysLongerThanChunk() {
+        CompactStringIndex index = new CompactStringIndex();
+        String longKey = "ж".repeat(1 << 20);
+
+        assertEquals(CompactStringIndex.ABSENT, index.putIfAbsent("короткий", 1));
+        assertEquals(CompactStringIndex.ABSENT, index.putIfAbsent(longKey, 2));
+        assertEquals(CompactStringIndex.ABSENT, index.putIfAbsent("после", 3));
+
+        assertEquals(2, index.get(longKey));
+        assertEquals(longKey, index.keyAt(1));
+        assertEquals(3, index.get("после"));
+    }
+
+    @Test
+    @DisplayName("Расход памяти на запись заметно меньше, чем у HashMap")
+    void shouldUseLittleMemoryPerEntry() {
+        int entries = 1_000_000;
+        CompactDuplicateInputCheck inputCheck = new CompactDuplicateInputCheck(entries);
+
+        for (int i = 0; i < entries; i++) {
+            inputCheck.checkInput("input-" + i);
+        }
+
+        double bytesPerEntry = (double) inputCheck.memoryUsage() / entries;
+        assertTrue(bytesPerEntry < 40, "Байт на запись: " + bytesPerEntry);
+    }
+
+    private static String randomInput(Random random) {
+        int length = random.nextInt(4);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(4)) {
+                case 0 -> builder.append((char) ('a' + random.nextInt(6)));
+                case 1 -> builder.append((char) ('а' + random.nextInt(6)));
+                case 2 -> builder.append((char) (0x4E00 + random.nextInt(4)));
+                default -> builder.appendCodePoint(0x1F600 + random.nextInt(3));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.duplicates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentDuplicateInputCheckTest {
+
+    @Test
+    @DisplayName("Однопоточное поведение совпадает с DuplicateInputCheck")
+    void shouldBehaveLikeSequentialCheck() throws AlreadyExistsException {
+        ConcurrentDuplicateInputCheck inputCheck = new ConcurrentDuplicateInputCheck(4);
+
+        inputCheck.addInput("первый");
+        inputCheck.addInput("второй");
+
+        AlreadyExistsException ex = assertThrows(AlreadyExistsException.class, () -> inputCheck.addInput("первый"));
+        assertEquals("первый", ex.getValue());
+        assertEquals(1, ex.getPosition());
+        assertEquals(3, inputCheck.getCounter(), "Дубликат не должен увеличивать счетчик");
+    }
+
+    @Test
+    @DisplayName("Из конкурирующих потоков побеждает ровно один, номера непрерывны")
+    void shouldAssignEachValueExactlyOnceUnderContention() throws InterruptedException {
+        int threads = 8;
+        int values = 5_000;
+        ConcurrentDuplicateInputCheck inputCheck = new ConcurrentDuplicateInputCheck();
+        Set<Integer> assignedPositions = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < values; i++) {
+                    try {
+                        inputCheck.addInput("value-" + i);
+                    } catch (AlreadyExistsException ex) {
+                        duplicates.incrementAndGet();
+                        assignedPositions.add(ex.getPosition());
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(values + 1, inputCheck.getCounter());
+        assertEquals((threads - 1) * values, duplicates.get());
+
+        Set<Integer> expectedPositions = new HashSet<>();
+        for (int i = 1; i <= values; i++) {
+            expectedPositions.add(i);
+        }
+        assertEquals(expectedPositions, assignedPositions);
+    }
+}
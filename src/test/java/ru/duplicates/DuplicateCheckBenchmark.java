@@ -0,0 +1,84 @@
+package ru.duplicates;
+
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+import java.util.Random;
+
+/**
+ * Микробенчмарк: сравнение {@link DuplicateCheck#checkInput(String)} и
+ * {@link DuplicateCheck#addInput(String)} на потоке с заданной долей повторов.
+ * Запуск: {@code java -cp target/classes:target/test-classes ru.duplicates.DuplicateCheckBenchmark [доля_повторов]}.
+ */
+public class DuplicateCheckBenchmark {
+
+    private static final int INPUTS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        double duplicateShare = args.length > 0 ? Double.parseDouble(args[0]) : 0.5;
+        String[] inputs = generateInputs(duplicateShare);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long exceptionNanos = runWithExceptions(inputs);
+            long resultNanos = runWithResults(inputs);
+
+            System.out.printf("Раунд %d: addInput %.1f нс/ввод, checkInput %.1f нс/ввод%n",
+                    round, (double) exceptionNanos / INPUTS, (double) resultNanos / INPUTS);
+        }
+    }
+
+    private static String[] generateInputs(double duplicateShare) {
+        Random random = new Random(42);
+        String[] inputs = new String[INPUTS];
+        int unique = 0;
+
+        for (int i = 0; i < INPUTS; i++) {
+            if (unique > 0 && random.nextDouble() < duplicateShare) {
+                inputs[i] = inputs[random.nextInt(i)];
+            } else {
+                inputs[i] = "input-" + unique++;
+            }
+        }
+        return inputs;
+    }
+
+    private static long runWithExceptions(String[] inputs) {
+        DuplicateInputCheck inputCheck = new DuplicateInputCheck();
+        int duplicates = 0;
+        long start = System.nanoTime();
+
+        for (String input : inputs) {
+            try {
+                inputCheck.addInput(input);
+            } catch (AlreadyExistsException ex) {
+                duplicates += ex.getPosition() > 0 ? 1 : 0;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        consume(duplicates);
+        return elapsed;
+    }
+
+    private static long runWithResults(String[] inputs) {
+        DuplicateInputCheck inputCheck = new DuplicateInputCheck();
+        int duplicates = 0;
+        long start = System.nanoTime();
+
+        for (String input : inputs) {
+            if (inputCheck.checkInput(input) != DuplicateCheck.NEW_INPUT) {
+                duplicates++;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        consume(duplicates);
+        return elapsed;
+    }
+
+    private static void consume(int value) {
+        if (value == Integer.MIN_VALUE) {
+            System.out.println(value);
+        }
+    }
+}
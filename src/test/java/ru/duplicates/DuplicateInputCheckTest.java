@@ -0,0 +1,155 @@
+package ru.duplicates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateInputCheckTest {
+
+    @Test
+    @DisplayName("Повторный ввод выбрасывает исключение с номером первого ввода")
+    void shouldThrowOnDuplicate() throws AlreadyExistsException {
+        DuplicateInputCheck inputCheck = new DuplicateInputCheck();
+
+        inputCheck.addInput("a");
+        inputCheck.addInput("b");
+
+        AlreadyExistsException ex = assertThrows(AlreadyExistsException.class, () -> inputCheck.addInput("b"));
+        assertEquals("b", ex.getValue());
+        assertEquals(2, ex.getPosition());
+        assertEquals(3, inputCheck.getCounter());
+    }
+
+    @Test
+    @DisplayName("Проверка с заранее рассчитанной историей сообщает те же номера")
+    void shouldKeepPositionsWithExpectedSize() {
+        DuplicateInputCheck expected = new DuplicateInputCheck();
+        DuplicateInputCheck presized = new DuplicateInputCheck(1_000);
+        Random random = new Random(3);
+
+        for (int i = 0; i < 20_000; i++) {
+            String input = "v" + random.nextInt(5_000);
+            assertEquals(expected.checkInput(input), presized.checkInput(input));
+        }
+        assertEquals(expected.getCounter(), presized.getCounter());
+        assertThrows(IllegalArgumentException.class, () -> new DuplicateInputCheck(-1));
+    }
+
+    @Test
+    @DisplayName("checkInput возвращает NEW_INPUT для новой строки и номер первого ввода для повтора")
+    void shouldReportDuplicatesWithoutException() {
+        DuplicateInputCheck inputCheck = new DuplicateInputCheck();
+
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("a"));
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("b"));
+        assertEquals(1, inputCheck.checkInput("a"));
+        assertEquals(2, inputCheck.checkInput("b"));
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("c"));
+        assertEquals(4, inputCheck.getCounter(), "Повторы не должны увеличивать счетчик");
+    }
+
+    @Test
+    @DisplayName("checkInput и addInput используют общую историю")
+    void shouldShareHistoryBetweenApis() {
+        DuplicateInputCheck inputCheck = new DuplicateInputCheck();
+
+        inputCheck.checkInput("a");
+
+        AlreadyExistsException ex = assertThrows(AlreadyExistsException.class, () -> inputCheck.addInput("a"));
+        assertEquals(1, ex.getPosition());
+    }
+
+    @Test
+    @DisplayName("addAll возвращает все дубликаты пакета с номерами первого ввода")
+    void shouldReturnAllDuplicatesOfBatch() {
+        DuplicateInputCheck inputCheck = new DuplicateInputCheck();
+        inputCheck.checkInput("x");
+
+        List<Duplicate> duplicates = inputCheck.addAll("a", "x", "b", "a", "a");
+
+        assertEquals(List.of(
+                new Duplicate("x", 1, 1),
+                new Duplicate("a", 3, 2),
+                new Duplicate("a", 4, 2)
+        ), duplicates);
+        assertEquals(4, inputCheck.getCounter());
+    }
+
+    @Test
+    @DisplayName("filterNew оставляет только первые вхождения, findDuplicates — только повторы")
+    void shouldFilterStreams() {
+        DuplicateInputCheck inputCheck = new DuplicateInputCheck();
+
+        List<String> unique = inputCheck.filterNew(Stream.of("a", "b", "a", "c", "b"))
+                .collect(Collectors.toList());
+        assertEquals(List.of("a", "b", "c"), unique);
+
+        List<Duplicate> duplicates = inputCheck.findDuplicates(Stream.of("d", "c", "d"))
+                .collect(Collectors.toList());
+        assertEquals(List.of(new Duplicate("c", 1, 3), new Duplicate("d", 2, 4)), duplicates);
+    }
+
+    @Test
+    @DisplayName("Параллельная пакетная проверка детерминирована и совпадает с последовательной")
+    void shouldMatchSequentialBatchInParallelMode() {
+        Random random = new Random(11);
+        List<String> history = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            history.add("v" + random.nextInt(2_000));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            batch.add("v" + random.nextInt(50_000));
+        }
+
+        DuplicateInputCheck sequential = new DuplicateInputCheck();
+        DuplicateInputCheck parallel = new DuplicateInputCheck();
+        sequential.addAll(history);
+        parallel.addAll(history);
+
+        List<Duplicate> expected = sequential.addAll(batch);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<Duplicate> actual;
+        try {
+            actual = parallel.addAllParallel(batch, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(sequential.getCounter(), parallel.getCounter());
+        assertEquals(sequential.checkInput("v123"), parallel.checkInput("v123"));
+    }
+
+    @Test
+    @DisplayName("Многие пакеты нумеруются так же, как поэлементная проверка")
+    void manyBatchesShouldKeepNumbering() {
+        DuplicateInputCheck inputCheck = new DuplicateInputCheck();
+        List<String> batch = new ArrayList<>();
+        for (int round = 0; round < 1_000; round++) {
+            batch.clear();
+            for (int i = 0; i < 100; i++) {
+                batch.add(round + "-" + i);
+            }
+            if (round % 2 == 0) {
+                inputCheck.addAll(batch);
+            } else {
+                inputCheck.addAllParallel(batch);
+            }
+        }
+
+        assertEquals(100_001, inputCheck.getCounter());
+        assertEquals(1, inputCheck.checkInput("0-0"));
+        assertEquals(50_008, inputCheck.checkInput("500-7"));
+        assertEquals(List.of(new Duplicate("999-99", 1, 100_000)), inputCheck.addAllParallel(List.of("new", "999-99")));
+    }
+}
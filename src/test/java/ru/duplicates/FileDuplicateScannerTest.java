@@ -0,0 +1,66 @@
+package ru.duplicates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDuplicateScannerTest {
+
+    private static final String TEXT = "яблоко\r\nгруша\nяблоко\n\nслива\nгруша\nяблоко\n\nслива";
+    private static final String EXPECTED_REPORT = """
+            Значение\tПервая строка\tПовторы
+            яблоко\t1\t3,7
+            груша\t2\t6
+            \t4\t8
+            слива\t5\t9
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Отчет по файлу содержит первое появление и все повторы")
+    void shouldReportDuplicatesInFile() throws IOException {
+        Path file = directory.resolve("input.txt");
+        Files.writeString(file, TEXT, StandardCharsets.UTF_8);
+
+        FileDuplicateScanner scanner = new FileDuplicateScanner();
+        scanner.scan(file);
+
+        assertEquals(EXPECTED_REPORT, report(scanner));
+        assertEquals(9, scanner.getLineCount());
+        assertEquals(4, scanner.getUniqueCount());
+        assertEquals(5, scanner.getRepeatCount());
+        assertEquals(Files.size(file), scanner.getByteCount());
+    }
+
+    @Test
+    @DisplayName("Чтение из потока дает тот же отчет, в том числе при росте буфера")
+    void shouldReportDuplicatesInStream() throws IOException {
+        String longLine = "x".repeat(3 << 20);
+        String text = TEXT + "\n" + longLine + "\n" + longLine + "\n";
+
+        FileDuplicateScanner scanner = new FileDuplicateScanner();
+        scanner.scan(Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals(11, scanner.getLineCount());
+        assertTrue(report(scanner).startsWith(EXPECTED_REPORT));
+        assertEquals(6, scanner.getRepeatCount());
+    }
+
+    private static String report(FileDuplicateScanner scanner) throws IOException {
+        StringWriter out = new StringWriter();
+        scanner.writeReport(out);
+        return out.toString();
+    }
+}
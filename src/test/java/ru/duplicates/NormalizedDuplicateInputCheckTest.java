@@ -0,0 +1,84 @@
+package ru.duplicates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+import java.text.Normalizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizedDuplicateInputCheckTest {
+
+    private static final KeyNormalizer ALL_RULES = KeyNormalizer.of(true, true, Normalizer.Form.NFC);
+
+    @ParameterizedTest(name = "''{0}'' ~ ''{1}''")
+    @CsvSource(delimiter = '|', value = {
+            "Иванов|'  иванов\t'",
+            "HELLO|hello",
+            "Café|café",
+            "'ÉCOLE '|école",
+            "𝔄bc|𝔄BC"
+    })
+    @DisplayName("Эквивалентные строки считаются дубликатами")
+    void shouldTreatEquivalentStringsAsDuplicates(String first, String second) throws AlreadyExistsException {
+        NormalizedDuplicateInputCheck inputCheck = new NormalizedDuplicateInputCheck(ALL_RULES);
+        inputCheck.addInput(first);
+
+        AlreadyExistsException ex = assertThrows(AlreadyExistsException.class, () -> inputCheck.addInput(second));
+        assertEquals(second, ex.getValue(), "В исключении должна быть исходная строка");
+        assertEquals(1, ex.getPosition());
+    }
+
+    @ParameterizedTest(name = "''{0}'' != ''{1}''")
+    @CsvSource(delimiter = '|', value = {
+            "Иванов|Иванова",
+            "a b|ab",
+            "cafe|café"
+    })
+    @DisplayName("Различные строки не считаются дубликатами")
+    void shouldDistinguishDifferentStrings(String first, String second) {
+        NormalizedDuplicateInputCheck inputCheck = new NormalizedDuplicateInputCheck(ALL_RULES);
+
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput(first));
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput(second));
+    }
+
+    @Test
+    @DisplayName("Составная и разложенная формы символа считаются одной строкой")
+    void shouldMatchComposedAndDecomposedForms() {
+        NormalizedDuplicateInputCheck inputCheck = new NormalizedDuplicateInputCheck(ALL_RULES);
+
+        inputCheck.checkInput("Caf\u00E9");
+        assertEquals(1, inputCheck.checkInput(" CAFE\u0301"));
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("\u0419\u043E\u0434"));
+        assertEquals(2, inputCheck.checkInput("\u0438\u0306\u043E\u0434"));
+    }
+
+    @Test
+    @DisplayName("Правила применяются выборочно")
+    void shouldApplyOnlyConfiguredRules() {
+        NormalizedDuplicateInputCheck caseOnly = new NormalizedDuplicateInputCheck(KeyNormalizer.of(true, false, null));
+
+        caseOnly.checkInput("Abc");
+        assertEquals(1, caseOnly.checkInput("aBC"));
+        assertEquals(DuplicateCheck.NEW_INPUT, caseOnly.checkInput(" abc"));
+        assertTrue(KeyNormalizer.EXACT.matches("abc", "abc"));
+        assertFalse(KeyNormalizer.EXACT.matches("abc", "ABC"));
+    }
+
+    @Test
+    @DisplayName("Без правил поведение совпадает с DuplicateInputCheck")
+    void shouldMatchDuplicateInputCheckWithExactRules() {
+        DuplicateInputCheck expected = new DuplicateInputCheck();
+        NormalizedDuplicateInputCheck actual = new NormalizedDuplicateInputCheck(KeyNormalizer.EXACT);
+
+        for (int i = 0; i < 50_000; i++) {
+            String input = "v" + (i * 31 % 20_000);
+            assertEquals(expected.checkInput(input), actual.checkInput(input));
+        }
+        assertEquals(expected.getCounter(), actual.getCounter());
+    }
+}
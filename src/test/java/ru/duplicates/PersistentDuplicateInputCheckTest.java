@@ -0,0 +1,123 @@
+package ru.duplicates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.duplicates.exceptions.AlreadyExistsException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentDuplicateInputCheckTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("История и номера сохраняются после повторного открытия")
+    void shouldKeepHistoryAfterReopen() throws IOException {
+        try (PersistentDuplicateInputCheck inputCheck = PersistentDuplicateInputCheck.open(directory)) {
+            assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("первый"));
+            assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("второй"));
+        }
+
+        try (PersistentDuplicateInputCheck inputCheck = PersistentDuplicateInputCheck.open(directory)) {
+            assertEquals(3, inputCheck.getCounter());
+            assertEquals(2, inputCheck.checkInput("второй"));
+            assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("третий"));
+
+            AlreadyExistsException ex = assertThrows(AlreadyExistsException.class, () -> inputCheck.addInput("первый"));
+            assertEquals(1, ex.getPosition());
+        }
+    }
+
+    @Test
+    @DisplayName("Поведение совпадает с DuplicateInputCheck при росте таблицы и перезапусках")
+    void shouldMatchDuplicateInputCheckAcrossResizes() throws IOException {
+        DuplicateInputCheck expected = new DuplicateInputCheck();
+        PersistentDuplicateInputCheck actual = PersistentDuplicateInputCheck.open(directory);
+
+        for (int i = 0; i < 30_000; i++) {
+            String input = "значение-" + (i * 7919 % 20_000);
+            assertEquals(expected.checkInput(input), actual.checkInput(input));
+
+            if (i % 10_000 == 0) {
+                actual.close();
+                actual = PersistentDuplicateInputCheck.open(directory);
+            }
+        }
+
+        assertEquals(expected.getCounter(), actual.getCounter());
+        actual.close();
+    }
+
+    @Test
+    @DisplayName("Незавершенное добавление откатывается при открытии")
+    void shouldRollBackUnfinishedInsert() throws IOException {
+        try (PersistentDuplicateInputCheck inputCheck = PersistentDuplicateInputCheck.open(directory)) {
+            inputCheck.checkInput("a");
+            inputCheck.checkInput("b");
+        }
+
+        // Имитируем сбой: слот "b" заполнен, но размер и длина журнала не зафиксированы.
+        int slotOfB = (int) Utf8.hash("b") & ((1 << 10) - 1);
+        try (FileChannel index = FileChannel.open(directory.resolve("history.idx"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(28);
+            index.read(header, 0);
+            header.putInt(16, 1);
+            header.putInt(20, slotOfB);
+            header.flip();
+            index.write(header, 0);
+        }
+
+        try (PersistentDuplicateInputCheck inputCheck = PersistentDuplicateInputCheck.open(directory)) {
+            assertEquals(2, inputCheck.getCounter());
+            assertEquals(1, inputCheck.checkInput("a"));
+            assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("b"));
+            assertEquals(2, inputCheck.checkInput("b"));
+        }
+    }
+
+    @Test
+    @DisplayName("После закрытия обращения к истории отклоняются")
+    void shouldRejectCallsAfterClose() throws IOException {
+        PersistentDuplicateInputCheck inputCheck = PersistentDuplicateInputCheck.open(directory);
+        for (int i = 0; i < 2_000; i++) {
+            inputCheck.checkInput("строка-" + i);
+        }
+        inputCheck.close();
+        inputCheck.close();
+
+        assertThrows(IllegalStateException.class, () -> inputCheck.checkInput("строка-1"));
+        assertThrows(IllegalStateException.class, inputCheck::getCounter);
+        assertThrows(IllegalStateException.class, inputCheck::flush);
+        assertTrue(Files.exists(directory.resolve("history.idx.2")));
+        assertFalse(Files.exists(directory.resolve("history.idx.1")));
+        assertFalse(Files.exists(directory.resolve("history.idx.0")));
+    }
+
+    @Test
+    @DisplayName("Журнал без индекса и незавершенное поколение таблицы обрабатываются при открытии")
+    void shouldRejectMissingIndexAndDropStaleTables() throws IOException {
+        try (PersistentDuplicateInputCheck inputCheck = PersistentDuplicateInputCheck.open(directory)) {
+            inputCheck.checkInput("a");
+        }
+        // Имитируем сбой при росте таблицы: файл следующего поколения записан, заголовок не переключен.
+        Files.write(directory.resolve("history.idx.1"), new byte[64]);
+
+        try (PersistentDuplicateInputCheck inputCheck = PersistentDuplicateInputCheck.open(directory)) {
+            assertEquals(1, inputCheck.checkInput("a"));
+        }
+        assertFalse(Files.exists(directory.resolve("history.idx.1")));
+
+        Files.delete(directory.resolve("history.idx"));
+        assertThrows(IOException.class, () -> PersistentDuplicateInputCheck.open(directory));
+    }
+}
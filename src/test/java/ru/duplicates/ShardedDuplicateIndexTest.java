@@ -0,0 +1,210 @@
+package ru.duplicates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedDuplicateIndexTest {
+
+    private static final int SHARDS = 4;
+    private static final int NODES = 3;
+
+    @Test
+    @DisplayName("Слияние снимков узлов дает тот же результат, что и последовательная обработка")
+    void shouldMergeNodeSnapshotsDeterministically() throws Exception {
+        List<String> inputs = randomInputs(30_000);
+
+        ShardedDuplicateIndex sequential = new ShardedDuplicateIndex(SHARDS);
+        int sequentialDuplicates = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            if (sequential.checkInput(inputs.get(i), i + 1) != DuplicateCheck.NEW_INPUT) {
+                sequentialDuplicates++;
+            }
+        }
+
+        // Каждый "узел" обрабатывает свой сегмент с глобальными позициями и отдает снимки шардов.
+        int segment = inputs.size() / NODES + 1;
+        ExecutorService nodes = Executors.newFixedThreadPool(NODES);
+        List<Future<byte[][]>> snapshots = new ArrayList<>();
+        List<Integer> localDuplicates = new ArrayList<>();
+        for (int node = 0; node < NODES; node++) {
+            int from = node * segment;
+            int to = Math.min(inputs.size(), from + segment);
+            snapshots.add(nodes.submit(() -> {
+                ShardedDuplicateIndex local = new ShardedDuplicateIndex(SHARDS);
+                int duplicates = 0;
+                for (int i = from; i < to; i++) {
+                    if (local.checkInput(inputs.get(i), i + 1) != DuplicateCheck.NEW_INPUT) {
+                        duplicates++;
+                    }
+                }
+                synchronized (localDuplicates) {
+                    localDuplicates.add(duplicates);
+                }
+                byte[][] result = new byte[SHARDS][];
+                for (int shard = 0; shard < SHARDS; shard++) {
+                    result[shard] = local.shard(shard).toSnapshot();
+                }
+                return result;
+            }));
+        }
+        nodes.shutdown();
+
+        // Слияние в обратном порядке узлов: результат не должен зависеть от порядка.
+        ShardedDuplicateIndex merged = new ShardedDuplicateIndex(SHARDS);
+        int mergeDuplicates = 0;
+        for (int node = NODES - 1; node >= 0; node--) {
+            for (byte[] snapshot : snapshots.get(node).get()) {
+                mergeDuplicates += merged.merge(DuplicateShard.fromSnapshot(snapshot)).size();
+            }
+        }
+
+        int totalDuplicates = mergeDuplicates + localDuplicates.stream().mapToInt(Integer::intValue).sum();
+        assertEquals(sequentialDuplicates, totalDuplicates);
+        assertEquals(sequential.size(), merged.size());
+        for (String input : inputs) {
+            assertEquals(sequential.firstPosition(input), merged.firstPosition(input));
+        }
+    }
+
+    @Test
+    @DisplayName("При слиянии побеждает меньшая позиция")
+    void shouldKeepSmallestPositionOnMerge() {
+        String value = "значение";
+        int shardIndex = DuplicateShard.shardOf(value, SHARDS);
+
+        DuplicateShard late = new DuplicateShard(shardIndex, SHARDS);
+        DuplicateShard early = new DuplicateShard(shardIndex, SHARDS);
+        late.checkInput(value, 100);
+        early.checkInput(value, 7);
+
+        List<Duplicate> duplicates = late.merge(early);
+
+        assertEquals(List.of(new Duplicate(value, 100, 7)), duplicates);
+        assertEquals(7, late.firstPosition(value));
+    }
+
+    @Test
+    @DisplayName("Снимок восстанавливает шард без потерь")
+    void shouldRoundTripSnapshot() throws IOException {
+        DuplicateShard shard = new DuplicateShard(0, 1);
+        shard.checkInput("", 1);
+        shard.checkInput("Привет 😀", 300);
+        shard.checkInput("x".repeat(1_000), 70_000);
+
+        DuplicateShard restored = DuplicateShard.fromSnapshot(shard.toSnapshot());
+
+        assertEquals(3, restored.size());
+        assertEquals(1, restored.firstPosition(""));
+        assertEquals(300, restored.firstPosition("Привет 😀"));
+        assertEquals(70_000, restored.firstPosition("x".repeat(1_000)));
+    }
+
+    @Test
+    @DisplayName("Несовместимые шарды и чужие строки отклоняются")
+    void shouldRejectForeignShardsAndValues() {
+        DuplicateShard shard = new DuplicateShard(0, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> shard.merge(new DuplicateShard(1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> shard.merge(new DuplicateShard(0, 3)));
+        assertThrows(IOException.class, () -> DuplicateShard.fromSnapshot(new byte[]{1, 2, 3, 4, 5}));
+
+        int candidate = 0;
+        while (DuplicateShard.shardOf("v" + candidate, 2) != 1) {
+            candidate++;
+        }
+        String foreign = "v" + candidate;
+        assertThrows(IllegalArgumentException.class, () -> shard.checkInput(foreign, 1));
+    }
+
+    @Test
+    @DisplayName("Снимок с неверной длиной строки или позицией отклоняется")
+    void shouldRejectCorruptedLengths() throws IOException {
+        DuplicateShard shard = new DuplicateShard(0, 1);
+        shard.checkInput("abc", 1);
+        byte[] snapshot = shard.toSnapshot();
+        int header = snapshot.length - 5;
+
+        byte[] negative = corrupt(snapshot, header, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F);
+        byte[] huge = corrupt(snapshot, header, 0xFF, 0xFF, 0xFF, 0xFF, 0x07);
+        byte[] truncated = corrupt(snapshot, header, 0x80, 0x80, 0x04);
+        byte[] zeroPosition = corrupt(snapshot, header, 0x03, 'a', 'b', 'c', 0x00);
+
+        assertThrows(IOException.class, () -> DuplicateShard.fromSnapshot(negative));
+        assertThrows(IOException.class, () -> DuplicateShard.fromSnapshot(huge));
+        assertThrows(IOException.class, () -> DuplicateShard.fromSnapshot(truncated));
+        assertThrows(IOException.class, () -> DuplicateShard.fromSnapshot(zeroPosition));
+        assertEquals(1, DuplicateShard.fromSnapshot(snapshot).firstPosition("abc"));
+    }
+
+    @Test
+    @DisplayName("Снимок с чужой или повторной строкой отклоняется")
+    void shouldRejectForeignAndRepeatedKeysInSnapshot() throws IOException {
+        DuplicateShard pair = new DuplicateShard(0, 1);
+        pair.checkInput("abc", 1);
+        pair.checkInput("abd", 2);
+        byte[] repeated = pair.toSnapshot();
+        repeated[repeated.length - 2] = 'c';
+
+        int own = 0;
+        while (DuplicateShard.shardOf("v" + own, 2) != 0) {
+            own++;
+        }
+        int foreign = 0;
+        while (DuplicateShard.shardOf("v" + foreign, 2) != 1 || Integer.toString(foreign).length() != Integer.toString(own).length()) {
+            foreign++;
+        }
+        DuplicateShard shard = new DuplicateShard(0, 2);
+        shard.checkInput("v" + own, 1);
+        byte[] moved = shard.toSnapshot();
+        byte[] foreignKey = ("v" + foreign).getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(foreignKey, 0, moved, moved.length - 1 - foreignKey.length, foreignKey.length);
+
+        assertThrows(IOException.class, () -> DuplicateShard.fromSnapshot(repeated));
+        assertThrows(IOException.class, () -> DuplicateShard.fromSnapshot(moved));
+        assertEquals(1, DuplicateShard.fromSnapshot(shard.toSnapshot()).firstPosition("v" + own));
+    }
+
+    @Test
+    @DisplayName("Вхождение, вытесненное более ранней позицией, сообщается как дубликат")
+    void shouldReportOccurrenceDisplacedByEarlierPosition() {
+        ShardedDuplicateIndex index = new ShardedDuplicateIndex(SHARDS);
+
+        assertEquals(DuplicateCheck.NEW_INPUT, index.checkInput("v", 10));
+        assertEquals(DuplicateCheck.NEW_INPUT, index.checkInput("v", 3));
+        assertEquals(3, index.checkInput("v", 12));
+
+        assertEquals(List.of(new Duplicate("v", 10, 3)), index.drainDisplaced());
+        assertEquals(List.of(), index.drainDisplaced());
+        assertEquals(3, index.firstPosition("v"));
+    }
+
+    /** Заменяет записи снимка, начиная с {@code offset}, заданными байтами. */
+    private static byte[] corrupt(byte[] snapshot, int offset, int... tail) {
+        byte[] result = Arrays.copyOf(snapshot, offset + tail.length);
+        for (int i = 0; i < tail.length; i++) {
+            result[offset + i] = (byte) tail[i];
+        }
+        return result;
+    }
+
+    private static List<String> randomInputs(int count) {
+        Random random = new Random(5);
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            inputs.add("v" + random.nextInt(count / 2));
+        }
+        return inputs;
+    }
+}
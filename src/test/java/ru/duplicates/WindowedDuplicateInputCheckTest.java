@@ -0,0 +1,86 @@
+package ru.duplicates;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedDuplicateInputCheckTest {
+
+    @Test
+    @DisplayName("Окно по количеству помнит только последние N строк")
+    void shouldForgetInputsOutsideCountWindow() {
+        WindowedDuplicateInputCheck inputCheck = WindowedDuplicateInputCheck.lastInputs(2);
+
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("a"));
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("b"));
+        assertEquals(1, inputCheck.checkInput("a"));
+
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("c"));
+        assertEquals(1, inputCheck.getEvictionCount());
+        assertEquals(2, inputCheck.size());
+
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("a"), "Строка 'a' вытеснена из окна");
+        assertEquals(3, inputCheck.checkInput("c"));
+        assertEquals(5, inputCheck.getCounter());
+    }
+
+    @Test
+    @DisplayName("Окно по времени забывает строки после истечения срока")
+    void shouldForgetExpiredInputs() {
+        AtomicLong now = new AtomicLong();
+        WindowedDuplicateInputCheck inputCheck = WindowedDuplicateInputCheck.lastDuration(Duration.ofSeconds(10), now::get);
+
+        inputCheck.checkInput("a");
+        now.set(Duration.ofSeconds(5).toNanos());
+        inputCheck.checkInput("b");
+
+        now.set(Duration.ofSeconds(10).toNanos());
+        assertEquals(1, inputCheck.checkInput("a"), "Ровно 10 секунд — еще в окне");
+
+        now.set(Duration.ofSeconds(11).toNanos());
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("a"));
+        assertEquals(2, inputCheck.checkInput("b"));
+        assertEquals(1, inputCheck.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("Объем памяти ограничен размером окна при большом потоке")
+    void shouldKeepHistoryBounded() {
+        WindowedDuplicateInputCheck inputCheck = WindowedDuplicateInputCheck.lastInputs(1_000);
+
+        for (int i = 0; i < 100_000; i++) {
+            inputCheck.checkInput("value-" + i);
+        }
+
+        assertEquals(1_000, inputCheck.size());
+        assertEquals(99_000, inputCheck.getEvictionCount());
+        assertEquals(100_000, inputCheck.checkInput("value-99999"));
+    }
+
+    @Test
+    @DisplayName("Очередь режима по времени растет без потери порядка")
+    void shouldGrowTimeQueue() {
+        AtomicLong now = new AtomicLong();
+        WindowedDuplicateInputCheck inputCheck = WindowedDuplicateInputCheck.lastDuration(Duration.ofNanos(100), now::get);
+
+        for (int i = 0; i < 1_000; i++) {
+            now.set(i);
+            inputCheck.checkInput("value-" + i);
+        }
+
+        assertEquals(101, inputCheck.size());
+        assertEquals(900, inputCheck.checkInput("value-899"));
+        assertEquals(DuplicateCheck.NEW_INPUT, inputCheck.checkInput("value-898"));
+    }
+
+    @Test
+    @DisplayName("Некорректные размеры окна отклоняются")
+    void shouldRejectInvalidWindow() {
+        assertThrows(IllegalArgumentException.class, () -> WindowedDuplicateInputCheck.lastInputs(0));
+        assertThrows(IllegalArgumentException.class, () -> WindowedDuplicateInputCheck.lastDuration(Duration.ZERO));
+    }
+}
@@ -0,0 +1,110 @@
+package ru.passwordvalidator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordAuditTest {
+
+    @Test
+    @DisplayName("Аудит считает ошибки по причинам")
+    void shouldCountErrorsByReason() throws IOException {
+        String records = "User\tTest6789\n"
+                + "TEST\tTEST\n"
+                + "\n"
+                + "admin\tpass word\n"
+                + "broken line\n"
+                + "Иван\tПароль123\r\n";
+
+        PasswordAudit.Report report = new PasswordAudit(2).run(stream(records));
+
+        assertEquals(4, report.getRecordCount());
+        assertEquals(2, report.getValidCount());
+        assertEquals(2, report.getInvalidCount());
+        assertEquals(1, report.getMalformedCount());
+        assertEquals(1, report.getErrorCount(PasswordValidator.ERROR_TOO_SHORT));
+        assertEquals(2, report.getErrorCount(PasswordValidator.ERROR_NO_DIGIT));
+        assertEquals(1, report.getErrorCount(PasswordValidator.ERROR_NO_LOWER));
+        assertEquals(1, report.getErrorCount(PasswordValidator.ERROR_NO_UPPER));
+        assertEquals(1, report.getErrorCount(PasswordValidator.ERROR_USERNAME_MATCH));
+        assertEquals(1, report.getErrorCount(PasswordValidator.ERROR_CONTAINS_FORBIDDEN));
+        assertThrows(IllegalArgumentException.class, () -> report.getErrorCount(3));
+    }
+
+    @Test
+    @DisplayName("Параллельный аудит совпадает с последовательной проверкой")
+    void shouldMatchSequentialValidation() throws IOException {
+        Random random = new Random(21);
+        String alphabet = "aB3 \"xY9_ё";
+        StringBuilder records = new StringBuilder();
+        long[] expected = new long[Integer.SIZE];
+        long expectedValid = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            StringBuilder password = new StringBuilder();
+            for (int length = random.nextInt(12); length > 0; length--) {
+                password.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String userName = random.nextInt(10) == 0 ? password.toString() : "user" + i;
+            records.append(userName).append('\t').append(password).append('\n');
+
+            PasswordValidator.ValidationResult result = PasswordValidator.validatePassword(password.toString(), userName);
+            if (result.isValid()) {
+                expectedValid++;
+            }
+            for (int bit = 0; bit < Integer.SIZE; bit++) {
+                if (result.hasError(1 << bit)) {
+                    expected[bit]++;
+                }
+            }
+        }
+
+        PasswordAudit.Report report = new PasswordAudit(4).run(stream(records.toString()));
+
+        assertEquals(10_000, report.getRecordCount());
+        assertEquals(expectedValid, report.getValidCount());
+        for (int bit = 0; bit < Integer.SIZE; bit++) {
+            assertEquals(expected[bit], report.getErrorCount(1 << bit), "бит " + bit);
+        }
+        assertTrue(report.getRecordsPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Отчет выводит количество по каждой причине")
+    void shouldPrintReport() throws IOException {
+        PasswordAudit.Report report = new PasswordAudit(1).run(stream("User\tabc\n"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        report.print(new PrintStream(out, true, StandardCharsets.UTF_8));
+
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("Невалидных\t1"));
+        assertTrue(text.contains(ValidationMessages.defaultMessages().message(PasswordValidator.ERROR_TOO_SHORT) + "\t1"));
+        assertTrue(text.contains(ValidationMessages.defaultMessages().message(PasswordValidator.ERROR_CONTAINS_FORBIDDEN) + "\t0"));
+    }
+
+    @Test
+    @DisplayName("Ошибка собственного требования прерывает аудит")
+    void shouldPropagateRuleFailure() {
+        PasswordPolicy policy = PasswordPolicy.builder()
+                .require("Ошибка", (password, userName) -> {
+                    throw new IllegalStateException("сбой правила");
+                })
+                .build();
+
+        assertThrows(IllegalStateException.class, () -> new PasswordAudit(policy, 2).run(stream("User\tTest6789\n")));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordAudit(0));
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,79 @@
+package ru.passwordvalidator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordBlocklistTest {
+
+    private static final String LIST = "123456\r\nPassword123\n\nqwerty\nПароль123\nPassword123\n🔑Key12345\nlast\r";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Список строится в файл, отображается в память и находит пароли")
+    void shouldBuildAndOpenBlocklist() throws IOException {
+        Path text = directory.resolve("passwords.txt");
+        Path file = directory.resolve("passwords.pwbl");
+        Files.writeString(text, LIST, StandardCharsets.UTF_8);
+
+        assertEquals(6, PasswordBlocklist.build(text, file));
+        PasswordBlocklist blocklist = PasswordBlocklist.open(file);
+
+        assertEquals(6, blocklist.size());
+        for (String password : new String[]{"123456", "Password123", "qwerty", "Пароль123", "🔑Key12345", "last"}) {
+            assertTrue(blocklist.contains(password), password);
+        }
+        for (String password : new String[]{"", "123456\r", "password123", "Test6789", "Пароль1234"}) {
+            assertFalse(blocklist.contains(password), password);
+        }
+    }
+
+    @Test
+    @DisplayName("Список в памяти совпадает со списком из файла")
+    void shouldCreateBlocklistFromStream() throws IOException {
+        PasswordBlocklist blocklist = PasswordBlocklist.fromText(new ByteArrayInputStream(LIST.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(6, blocklist.size());
+        assertTrue(blocklist.contains("Password123"));
+        assertFalse(blocklist.contains("Password1234"));
+    }
+
+    @Test
+    @DisplayName("Файл неизвестного формата отклоняется")
+    void shouldRejectUnknownFile() throws IOException {
+        Path file = directory.resolve("broken.pwbl");
+        Files.writeString(file, "not a blocklist file");
+
+        assertThrows(IOException.class, () -> PasswordBlocklist.open(file));
+    }
+
+    @Test
+    @DisplayName("Пароль из списка возвращается как ошибка проверки")
+    void shouldReportBlocklistedPassword() throws IOException {
+        PasswordBlocklist blocklist = PasswordBlocklist.fromText(new ByteArrayInputStream(LIST.getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(PasswordValidator.isValidPassword("Password123", "User"));
+        PasswordValidator.ValidationResult result = PasswordValidator.validatePassword("Password123", "User", blocklist);
+        assertFalse(result.isValid());
+        assertEquals(PasswordValidator.ERROR_BLOCKLISTED, result.errorMask());
+        assertEquals(List.of(ValidationMessages.defaultMessages().message(PasswordValidator.ERROR_BLOCKLISTED)), result.errorMessages());
+        assertSame(PasswordValidator.validatePassword("Test6789", "User"),
+                PasswordValidator.validatePassword("Test6789", "User", blocklist));
+
+        PasswordPolicy policy = PasswordPolicy.builder().minLength(8).rejectBlocklisted(blocklist).build();
+        assertEquals(PasswordValidator.ERROR_TOO_SHORT | PasswordValidator.ERROR_BLOCKLISTED, policy.check("qwerty", "User"));
+        assertEquals(0, policy.check("Test6789", "User"));
+        assertEquals(PasswordValidator.ERROR_TOO_SHORT | PasswordValidator.ERROR_BLOCKLISTED, policy.getErrorCodes());
+    }
+}
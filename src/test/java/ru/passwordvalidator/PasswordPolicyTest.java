@@ -0,0 +1,108 @@
+package ru.passwordvalidator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordPolicyTest {
+
+    private final PasswordPolicy tenantPolicy = PasswordPolicy.builder()
+            .minLength(12)
+            .maxLength(16)
+            .requireDigit()
+            .requireSpecial()
+            .forbidCharacters("<>ё")
+            .require("Пароль не должен начинаться с имени пользователя.",
+                    (password, userName) -> userName == null || !password.startsWith(userName))
+            .build();
+
+    @Test
+    @DisplayName("Политика по умолчанию повторяет правила PasswordValidator")
+    void defaultPolicyShouldMatchValidator() {
+        PasswordPolicy policy = PasswordPolicy.defaultPolicy();
+
+        for (String password : new String[]{"Test6789", "_TestUser74", "abc", "TEST", "Pass word1", "", "пароль1ПАРОЛЬ"}) {
+            assertEquals(PasswordValidator.validatePassword(password, "TEST"), policy.validate(password, "TEST"), password);
+        }
+        assertEquals(0x3F, policy.getErrorCodes());
+    }
+
+    @Test
+    @DisplayName("Политика арендатора проверяет длину, классы и запрещенные символы")
+    void tenantPolicyShouldReportItsErrors() {
+        assertEquals(0, tenantPolicy.check("correct-horse7", "User"));
+        assertEquals(PasswordValidator.ERROR_TOO_SHORT | PasswordValidator.ERROR_NO_SPECIAL,
+                tenantPolicy.check("short7", "User"));
+        assertEquals(PasswordValidator.ERROR_TOO_LONG | PasswordValidator.ERROR_NO_DIGIT,
+                tenantPolicy.check("much-too-long-password", "User"));
+        assertEquals(PasswordValidator.ERROR_CONTAINS_FORBIDDEN, tenantPolicy.check("correct<horse7", "User"));
+        assertEquals(PasswordValidator.ERROR_CONTAINS_FORBIDDEN, tenantPolicy.check("correct-hёrse7", "User"));
+        assertEquals(0, tenantPolicy.check("correct horse-7", "User"));
+        assertEquals(PasswordPolicy.FIRST_CUSTOM_ERROR, tenantPolicy.check("User-horse-77", "User"));
+    }
+
+    @Test
+    @DisplayName("Сообщения собираются в порядке кодов ошибок")
+    void shouldBuildMessagesInCodeOrder() {
+        PasswordValidator.ValidationResult result = tenantPolicy.validate("<ab", "User");
+
+        assertFalse(result.isValid());
+        assertEquals(List.of(
+                "Пароль должен содержать не менее 12 символов.",
+                "Пароль должен содержать хотя бы одну цифру.",
+                "Пароль не должен содержать символы: <>ё."
+        ), result.errorMessages());
+        assertSame(tenantPolicy.validate("correct-horse7", "User"), PasswordValidator.validatePassword("Test6789", "User"));
+    }
+
+    @Test
+    @DisplayName("Сообщения с параметрами политики переводятся на заданный язык")
+    void shouldLocalizeParameterizedMessages() {
+        PasswordValidator.ValidationResult english = tenantPolicy.validate("<ab", "User", Locale.ENGLISH);
+
+        assertEquals(List.of(
+                "Password must be at least 12 characters long.",
+                "Password must contain at least one digit.",
+                "Password must not contain the characters: <>ё.",
+                "Пароль не должен начинаться с имени пользователя."
+        ), tenantPolicy.validate("User<ab", "User", Locale.ENGLISH).errorMessages());
+        assertEquals(tenantPolicy.validate("<ab", "User").errorMask(), english.errorMask());
+        assertEquals("Password must be at most 16 characters long.",
+                tenantPolicy.validate("much-too-long-password7", "User", Locale.ENGLISH).errorMessages().get(0));
+        assertEquals(tenantPolicy.validate("<ab", "User"), tenantPolicy.validate("<ab", "User", Locale.GERMAN));
+
+        PasswordPolicy single = PasswordPolicy.builder().minLength(21).maxLength(21).forbidSpacesAndQuotes().forbidCharacters("#").build();
+        assertEquals(List.of(
+                "Пароль должен содержать не менее 21 символа.",
+                "Пароль не должен содержать пробелы, табуляцию, кавычки (\") и символы: #."
+        ), single.validate("a b", "User").errorMessages());
+        assertEquals(List.of(
+                "Password must be at least 21 characters long.",
+                "Password must not contain spaces, tabs, quotes (\") or the characters: #."
+        ), single.validate("a b", "User", Locale.ENGLISH).errorMessages());
+        assertEquals(List.of("Password must be at least 1 character long."),
+                PasswordPolicy.builder().minLength(1).build().validate("", "User", Locale.ENGLISH).errorMessages());
+        assertSame(PasswordValidator.validatePassword("abc", "User", Locale.ENGLISH),
+                PasswordPolicy.defaultPolicy().validate("abc", "User", Locale.ENGLISH));
+    }
+
+    @Test
+    @DisplayName("Пустая политика принимает любой пароль")
+    void emptyPolicyShouldAcceptAnything() {
+        PasswordPolicy policy = PasswordPolicy.builder().build();
+
+        assertEquals(0, policy.check("", "User"));
+        assertEquals(0, policy.getErrorCodes());
+    }
+
+    @Test
+    @DisplayName("Должен бросать исключение при противоречивой политике")
+    void shouldRejectInconsistentPolicy() {
+        assertThrows(IllegalArgumentException.class, () -> PasswordPolicy.builder().minLength(10).maxLength(8).build());
+        assertThrows(IllegalArgumentException.class, () -> PasswordPolicy.builder().minLength(-1));
+    }
+}
@@ -0,0 +1,73 @@
+package ru.passwordvalidator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordStrengthTest {
+
+    @Test
+    @DisplayName("Энтропия учитывает размер алфавита")
+    void shouldUsePoolSize() {
+        assertEquals(0, PasswordStrength.entropyBits(""));
+        assertEquals(8 * Math.log(36) / Math.log(2), PasswordStrength.entropyBits("k7m2x5p4"), 1e-9);
+        assertEquals(8 * Math.log(95) / Math.log(2), PasswordStrength.entropyBits("k7M2x%p4"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Повторы, последовательности и соседние клавиши почти не добавляют энтропии")
+    void shouldDiscountPatterns() {
+        double bits = Math.log(26) / Math.log(2);
+        assertEquals(bits + 7, PasswordStrength.entropyBits("aaaaaaaa"), 1e-9);
+        assertEquals(bits + 7, PasswordStrength.entropyBits("abcdefgh"), 1e-9);
+        assertEquals(bits + 7, PasswordStrength.entropyBits("qwertyui"), 1e-9);
+        assertEquals(bits + 5, PasswordStrength.entropyBits("фывапр"), 1e-9);
+        assertEquals(Math.log(10) / Math.log(2) + 5, PasswordStrength.entropyBits("987654"), 1e-9);
+        assertTrue(PasswordStrength.continuesPattern('1', 'q'));
+        assertFalse(PasswordStrength.continuesPattern('a', 'k'));
+    }
+
+    @Test
+    @DisplayName("Оценка растет со стойкостью пароля")
+    void shouldScorePasswords() {
+        assertEquals(1, PasswordStrength.score("Password123"));
+        assertEquals(0, PasswordStrength.score("qwerty123456"));
+        assertEquals(1, PasswordStrength.score("Test6789xq"));
+        assertEquals(2, PasswordStrength.score("k7M2x%p4"));
+        assertEquals(3, PasswordStrength.score("correct-horse-7-battery"));
+        assertEquals(4, PasswordStrength.score("Tr0ub4dor&3-k7M2x%p4-Zq9!vL#w8"));
+        assertEquals(0, PasswordStrength.scoreOf(27.9));
+        assertEquals(4, PasswordStrength.scoreOf(128));
+    }
+
+    @Test
+    @DisplayName("Оценка по символам совпадает с оценкой всей строки")
+    void meterShouldMatchFullEvaluation() {
+        Random random = new Random(24);
+        String alphabet = "aAbB12qwЙцфы!- ";
+        PasswordStrength.Meter meter = new PasswordStrength.Meter();
+        StringBuilder typed = new StringBuilder();
+
+        for (int i = 0; i < 5_000; i++) {
+            if (typed.length() > 0 && random.nextInt(4) == 0) {
+                typed.setLength(typed.length() - 1);
+                meter.removeLast();
+            } else {
+                char symbol = alphabet.charAt(random.nextInt(alphabet.length()));
+                typed.append(symbol);
+                meter.append(symbol);
+            }
+            assertEquals(typed.length(), meter.length());
+            assertEquals(PasswordStrength.entropyBits(typed), meter.entropyBits(), 1e-9, typed.toString());
+            assertEquals(PasswordStrength.score(typed), meter.score());
+        }
+
+        meter.reset();
+        meter.removeLast();
+        assertEquals(0, meter.length());
+        assertEquals(0, meter.entropyBits());
+    }
+}
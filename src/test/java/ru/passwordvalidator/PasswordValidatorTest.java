@@ -5,7 +5,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -156,4 +158,58 @@ class PasswordValidatorTest {
                 MSG_USERNAME_MATCH
         ));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Маска ошибок соответствует списку сообщений")
+    void shouldReturnErrorMask() {
+        assertEquals(0, PasswordValidator.checkPassword("Password123", "User"));
+        assertEquals(PasswordValidator.ERROR_TOO_SHORT | PasswordValidator.ERROR_NO_DIGIT | PasswordValidator.ERROR_NO_UPPER,
+                PasswordValidator.checkPassword("abc", "User"));
+
+        PasswordValidator.ValidationResult result = PasswordValidator.validatePassword("Pass word1", "User");
+        assertEquals(PasswordValidator.ERROR_CONTAINS_FORBIDDEN, result.errorMask());
+        assertTrue(result.hasError(PasswordValidator.ERROR_CONTAINS_FORBIDDEN));
+        assertFalse(result.hasError(PasswordValidator.ERROR_NO_DIGIT));
+        assertEquals(result, new PasswordValidator.ValidationResult(false, List.of(MSG_CONTAINS_FORBIDDEN)));
+    }
+
+    @Test
+    @DisplayName("Для валидного пароля возвращается общий результат")
+    void shouldReuseValidResult() {
+        assertSame(PasswordValidator.validatePassword("Password123", "User"),
+                PasswordValidator.validatePassword("Test6789", "TestUser"));
+    }
+
+    @Test
+    @DisplayName("Однопроходная проверка совпадает с проверками Character для случайных паролей")
+    void shouldMatchCharacterChecksForRandomPasswords() {
+        Random random = new Random(19);
+        char[] alphabet = "aZ9 \t\"_\u00A0\u2003\u0451\u0401\u0663\u00DF\u01C5".toCharArray();
+
+        for (int i = 0; i < 20_000; i++) {
+            char[] password = new char[random.nextInt(12)];
+            for (int j = 0; j < password.length; j++) {
+                password[j] = random.nextBoolean() ? alphabet[random.nextInt(alphabet.length)] : (char) random.nextInt(0x3000);
+            }
+            String text = new String(password);
+
+            List<String> expected = new ArrayList<>();
+            if (text.length() < 8) {
+                expected.add(MSG_TOO_SHORT);
+            }
+            if (text.chars().noneMatch(Character::isDigit)) {
+                expected.add(MSG_NO_DIGIT);
+            }
+            if (text.chars().noneMatch(Character::isLowerCase)) {
+                expected.add(MSG_NO_LOWER);
+            }
+            if (text.chars().noneMatch(Character::isUpperCase)) {
+                expected.add(MSG_NO_UPPER);
+            }
+            if (text.chars().anyMatch(symbol -> Character.isSpaceChar(symbol) || symbol == '\t' || symbol == '"')) {
+                expected.add(MSG_CONTAINS_FORBIDDEN);
+            }
+            testPasswordErrors(text, "User", expected);
+        }
+    }
+}
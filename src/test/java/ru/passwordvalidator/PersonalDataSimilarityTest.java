@@ -0,0 +1,98 @@
+package ru.passwordvalidator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonalDataSimilarityTest {
+
+    @Test
+    @DisplayName("Пароль с именем пользователя без учета регистра считается похожим")
+    void shouldFindUsernameIgnoringCase() {
+        assertTrue(PersonalDataSimilarity.isSimilar("Ivanov2024", "ivanov"));
+        assertTrue(PersonalDataSimilarity.isSimilar("2024IVANOV!", "ivanov"));
+        assertTrue(PersonalDataSimilarity.isSimilar("Ivan0v2024", "ivanov"));
+        assertTrue(PersonalDataSimilarity.isSimilar("Ivnov2024", "ivanov"));
+        assertFalse(PersonalDataSimilarity.isSimilar("Iv4n0v2024", "ivanov"));
+        assertFalse(PersonalDataSimilarity.isSimilar("Test6789", "ivanov"));
+        assertFalse(PersonalDataSimilarity.isSimilar("Test6789", null));
+    }
+
+    @Test
+    @DisplayName("Проверяются слова полного имени и часть адреса почты до @")
+    void shouldCheckAttributeWords() {
+        assertTrue(PersonalDataSimilarity.isSimilar("Петров_1990", "Иван Петров"));
+        assertTrue(PersonalDataSimilarity.isSimilar("иван+2024", "Иван Петров"));
+        assertFalse(PersonalDataSimilarity.isSimilar("Al-2024-Qz", "Al Li"));
+        assertTrue(PersonalDataSimilarity.isSimilarToEmail("Petrov.iv99", "petrov.ivan@example.com"));
+        assertFalse(PersonalDataSimilarity.isSimilarToEmail("Example2024", "petrov.ivan@example.com"));
+        assertFalse(PersonalDataSimilarity.isSimilarToEmail("Test6789", null));
+    }
+
+    @Test
+    @DisplayName("Алгоритм Майерса совпадает с расчетом расстояния по таблице")
+    void distanceShouldMatchDynamicProgramming() {
+        Random random = new Random(23);
+        for (int i = 0; i < 20_000; i++) {
+            String text = randomString(random, random.nextInt(16));
+            String word = randomString(random, 1 + random.nextInt(random.nextInt(10) == 0 ? 64 : 8));
+
+            assertEquals(referenceDistance(text, word), PersonalDataSimilarity.distance(text, word), text + " / " + word);
+        }
+    }
+
+    @Test
+    @DisplayName("Политика сообщает о сходстве с личными данными только при явном включении")
+    void policyShouldRejectPersonalDataOnRequest() {
+        PasswordPolicy policy = PasswordPolicy.builder()
+                .minLength(8)
+                .rejectPersonalData()
+                .build();
+
+        assertEquals(PasswordValidator.ERROR_SIMILAR_TO_PERSONAL_DATA, policy.check("Ivanov2024", "ivanov"));
+        assertEquals(0, policy.check("Test6789", "ivanov"));
+        assertEquals(PasswordValidator.ERROR_SIMILAR_TO_PERSONAL_DATA,
+                policy.check("Sidorova.88", "user17", "a.sidorova@example.com", null));
+        assertEquals(List.of(ValidationMessages.defaultMessages().message(PasswordValidator.ERROR_SIMILAR_TO_PERSONAL_DATA)),
+                policy.validate("Test6789Maria", "user17", null, "Мария Maria").errorMessages());
+        assertTrue(PasswordValidator.isValidPassword("_TestUser74", "TEST"));
+    }
+
+    private static String randomString(Random random, int length) {
+        String alphabet = "abcAB";
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            result.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Наименьшее расстояние Левенштейна между словом и фрагментом текста: первая строка таблицы нулевая.
+     */
+    private static int referenceDistance(String text, String word) {
+        String lowerText = text.toLowerCase();
+        String lowerWord = word.toLowerCase();
+        int[] previous = new int[lowerText.length() + 1];
+        int[] current = new int[lowerText.length() + 1];
+        for (int i = 1; i <= lowerWord.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= lowerText.length(); j++) {
+                int substitution = previous[j - 1] + (lowerWord.charAt(i - 1) == lowerText.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        int best = lowerWord.length();
+        for (int value : previous) {
+            best = Math.min(best, value);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.passwordvalidator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationMessagesTest {
+
+    @Test
+    @DisplayName("Каталог по умолчанию содержит русские сообщения")
+    void defaultCatalogShouldBeRussian() {
+        ValidationMessages messages = ValidationMessages.defaultMessages();
+
+        assertEquals("Пароль должен содержать не менее 8 символов.", messages.message(PasswordValidator.ERROR_TOO_SHORT));
+        assertEquals("Пароль не должен содержать пробелы, табуляцию или кавычки (\").",
+                messages.message(PasswordValidator.ERROR_CONTAINS_FORBIDDEN));
+        assertSame(messages, ValidationMessages.defaultMessages());
+        assertEquals(messages.message(PasswordValidator.ERROR_NO_DIGIT),
+                ValidationMessages.forLocale(Locale.forLanguageTag("ru")).message(PasswordValidator.ERROR_NO_DIGIT));
+        assertEquals(messages.message(PasswordValidator.ERROR_NO_DIGIT),
+                ValidationMessages.forLocale(Locale.GERMAN).message(PasswordValidator.ERROR_NO_DIGIT));
+        assertThrows(IllegalArgumentException.class, () -> messages.message(PasswordPolicy.FIRST_CUSTOM_ERROR));
+        assertThrows(IllegalArgumentException.class, () -> messages.message(3));
+    }
+
+    @Test
+    @DisplayName("Английский каталог загружается один раз для языка")
+    void shouldLoadEnglishCatalogOnce() {
+        ValidationMessages english = ValidationMessages.forLocale(Locale.ENGLISH);
+
+        assertSame(english, ValidationMessages.forLocale(Locale.ENGLISH));
+        assertEquals(Locale.ENGLISH, english.getLocale());
+        assertEquals("Password must contain at least one digit.", english.message(PasswordValidator.ERROR_NO_DIGIT));
+        assertEquals("Password must contain at least one digit.",
+                ValidationMessages.forLocale(Locale.US).message(PasswordValidator.ERROR_NO_DIGIT));
+    }
+
+    @Test
+    @DisplayName("Результаты для всех сочетаний кодов общие и неизменяемые")
+    void shouldShareResultsForAllMasks() {
+        ValidationMessages english = ValidationMessages.forLocale(Locale.ENGLISH);
+
+        for (int errorMask = 0; errorMask <= ValidationMessages.BUILT_IN_ERRORS; errorMask++) {
+            PasswordValidator.ValidationResult result = english.result(errorMask);
+            assertSame(result, english.result(errorMask));
+            assertEquals(errorMask == 0, result.isValid());
+            assertEquals(errorMask, result.errorMask());
+            assertEquals(Integer.bitCount(errorMask), result.errorMessages().size());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> english.result(1).errorMessages().add("x"));
+        assertThrows(IllegalArgumentException.class, () -> english.result(PasswordPolicy.FIRST_CUSTOM_ERROR));
+    }
+
+    @Test
+    @DisplayName("Проверка с ошибками возвращает общий результат на заданном языке")
+    void validatorShouldReuseResults() {
+        PasswordValidator.ValidationResult first = PasswordValidator.validatePassword("abc", "User");
+
+        assertSame(first, PasswordValidator.validatePassword("xyz", "Admin"));
+        assertSame(ValidationMessages.defaultMessages().result(first.errorMask()), first);
+
+        PasswordValidator.ValidationResult english = PasswordValidator.validatePassword("abc", "User", Locale.ENGLISH);
+        assertEquals(first.errorMask(), english.errorMask());
+        assertEquals(List.of(
+                "Password must be at least 8 characters long.",
+                "Password must contain at least one digit.",
+                "Password must contain at least one uppercase letter."
+        ), english.errorMessages());
+        assertSame(PasswordValidator.validatePassword("Test6789", "User"),
+                PasswordValidator.validatePassword("Test6789", "User", Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,154 @@
+package ru.vat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.LongBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BulkVatCalculatorTest {
+
+    private final BulkVatCalculator calculator = new BulkVatCalculator();
+
+    /** Цены для сравнения: все суммы до 1000 рублей и случайные крупные суммы. */
+    private static long[] samplePrices() {
+        long[] prices = new long[100_000 + 10_000];
+        for (int i = 0; i < 100_000; i++) {
+            prices[i] = i;
+        }
+        Random random = new Random(42);
+        for (int i = 100_000; i < prices.length; i++) {
+            prices[i] = (random.nextLong() >>> 1) % 1_000_000_000_000L;
+        }
+        return prices;
+    }
+
+    private static long kopecks(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    @Nested
+    @DisplayName("Совпадение с Vat")
+    class EquivalenceTests {
+
+        @Test
+        @DisplayName("Расчет от цены без НДС совпадает с Vat.fromPriceWithoutVat")
+        void shouldMatchVatFromPriceWithoutVat() {
+            long[] prices = samplePrices();
+            long[] withVat = new long[prices.length];
+            long[] receipt = new long[prices.length];
+            long[] declaration = new long[prices.length];
+            calculator.fromPricesWithoutVat(prices, withVat, receipt, declaration);
+
+            for (int i = 0; i < prices.length; i++) {
+                Vat vat = Vat.fromPriceWithoutVat(BigDecimal.valueOf(prices[i], 2));
+                assertEquals(kopecks(vat.getPriceWithVat()), withVat[i], "Цена с НДС для " + prices[i]);
+                assertEquals(kopecks(vat.getVatForReceipt()), receipt[i], "НДС для чека для " + prices[i]);
+                assertEquals(vat.getVatForDeclaration().longValueExact(), declaration[i], "НДС для декларации для " + prices[i]);
+            }
+        }
+
+        @Test
+        @DisplayName("Расчет от цены с НДС совпадает с Vat.fromPriceWithVat")
+        void shouldMatchVatFromPriceWithVat() {
+            long[] prices = samplePrices();
+            long[] withoutVat = new long[prices.length];
+            long[] receipt = new long[prices.length];
+            long[] declaration = new long[prices.length];
+            calculator.fromPricesWithVat(prices, withoutVat, receipt, declaration);
+
+            for (int i = 0; i < prices.length; i++) {
+                Vat vat = Vat.fromPriceWithVat(BigDecimal.valueOf(prices[i], 2));
+                assertEquals(kopecks(vat.getPriceWithoutVat()), withoutVat[i], "Цена без НДС для " + prices[i]);
+                assertEquals(kopecks(vat.getVatForReceipt()), receipt[i], "НДС для чека для " + prices[i]);
+                assertEquals(vat.getVatForDeclaration().longValueExact(), declaration[i], "НДС для декларации для " + prices[i]);
+                assertEquals(kopecks(vat.getPriceWithVat()), prices[i], "Цена с НДС для " + prices[i]);
+            }
+        }
+
+        @Test
+        @DisplayName("Расчет по другим ставкам совпадает с Vat")
+        void shouldMatchVatForOtherRates() {
+            for (VatRate rate : new VatRate[]{VatRate.REDUCED, VatRate.ZERO, VatRate.ofBasisPoints(1800)}) {
+                BulkVatCalculator rateCalculator = new BulkVatCalculator(rate);
+
+                for (long price = 0; price < 20_000; price++) {
+                    Vat net = Vat.fromPriceWithoutVat(BigDecimal.valueOf(price, 2), rate);
+                    assertEquals(kopecks(net.getPriceWithVat()), rateCalculator.priceWithVat(price));
+                    assertEquals(kopecks(net.getVatForReceipt()), rateCalculator.vatForReceipt(price));
+                    assertEquals(net.getVatForDeclaration().longValueExact(), rateCalculator.vatForDeclaration(price));
+
+                    Vat gross = Vat.fromPriceWithVat(BigDecimal.valueOf(price, 2), rate);
+                    assertEquals(kopecks(gross.getPriceWithoutVat()), rateCalculator.priceWithoutVatFromGross(price));
+                    assertEquals(kopecks(gross.getVatForReceipt()), rateCalculator.vatForReceiptFromGross(price));
+                    assertEquals(gross.getVatForDeclaration().longValueExact(), rateCalculator.vatForDeclarationFromGross(price));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Столбцы LongBuffer дают тот же результат, что и массивы")
+        void shouldMatchArraysWhenUsingBuffers() {
+            long[] prices = samplePrices();
+            long[] expected = new long[prices.length];
+            calculator.fromPricesWithoutVat(prices, null, expected, null);
+
+            LongBuffer receipt = LongBuffer.allocate(prices.length);
+            calculator.fromPricesWithoutVat(LongBuffer.wrap(prices), null, receipt, null);
+
+            assertEquals(prices.length, receipt.position());
+            assertArrayEquals(expected, receipt.array());
+        }
+
+        @Test
+        @DisplayName("Поэлементные методы совпадают с пакетными")
+        void shouldMatchSingleItemMethods() {
+            assertEquals(12000, calculator.priceWithVat(10000));
+            assertEquals(2008, calculator.vatForReceipt(10041));
+            assertEquals(1, calculator.vatForDeclaration(417));
+            assertEquals(10083, calculator.priceWithoutVatFromGross(12100));
+            assertEquals(17, calculator.vatForReceiptFromGross(100));
+            assertEquals(1, calculator.vatForDeclarationFromGross(599));
+        }
+    }
+
+    @Nested
+    @DisplayName("Тесты валидации")
+    class ValidationTests {
+
+        @Test
+        @DisplayName("Должен бросать исключение при отрицательной цене")
+        void shouldThrowExceptionWhenPriceIsNegative() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> calculator.fromPricesWithoutVat(new long[]{100, -1}, new long[2], null, null));
+            assertThrows(IllegalArgumentException.class, () -> calculator.vatForReceiptFromGross(-1));
+        }
+
+        @Test
+        @DisplayName("Должен бросать исключение при переполнении")
+        void shouldThrowExceptionWhenPriceIsTooLarge() {
+            assertThrows(IllegalArgumentException.class, () -> calculator.priceWithVat(BulkVatCalculator.MAX_KOPECKS + 1));
+        }
+
+        @Test
+        @DisplayName("Должен бросать исключение при несовпадении длины массивов")
+        void shouldThrowExceptionWhenLengthsDiffer() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> calculator.fromPricesWithVat(new long[3], new long[2], null, null));
+        }
+
+        @Test
+        @DisplayName("Перевод в копейки не теряет точность")
+        void shouldConvertToKopecksExactly() {
+            assertEquals(12345, BulkVatCalculator.toKopecks(new BigDecimal("123.45")));
+            assertEquals(100, BulkVatCalculator.toKopecks(new BigDecimal("1.000")));
+            assertThrows(ArithmeticException.class, () -> BulkVatCalculator.toKopecks(new BigDecimal("1.005")));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ru.vat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VatAggregatorTest {
+
+    @Test
+    @DisplayName("Разница округления распределяется по строкам")
+    void shouldDistributeRoundingAcrossLines() {
+        VatAggregator invoice = new VatAggregator(VatRate.STANDARD);
+        long[] shares = new long[5];
+        for (int i = 0; i < shares.length; i++) {
+            shares[i] = invoice.addNet(2);
+        }
+
+        assertEquals(new BigDecimal("0.00"), Vat.fromPriceWithoutVat(new BigDecimal("0.02")).getVatForReceipt());
+        assertArrayEquals(new long[]{0, 1, 0, 1, 0}, shares);
+        assertEquals(2, invoice.getTotalVatForReceipt());
+        assertEquals(10, invoice.getTotalPriceWithoutVat());
+        assertEquals(12, invoice.getTotalPriceWithVat());
+    }
+
+    @Test
+    @DisplayName("НДС для декларации округляется от точной суммы")
+    void shouldRoundDeclarationFromExactTotal() {
+        VatAggregator invoice = new VatAggregator(VatRate.STANDARD);
+        long declarationShares = 0;
+        for (int i = 0; i < 10; i++) {
+            invoice.addNet(417);
+            declarationShares += invoice.getLastDeclarationShare();
+        }
+
+        assertEquals(834, invoice.getTotalVatForReceipt());
+        assertEquals(8, invoice.getTotalVatForDeclaration());
+        assertEquals(8, declarationShares);
+    }
+
+    @Test
+    @DisplayName("Итог совпадает с точной суммой BigDecimal")
+    void shouldMatchExactBigDecimalTotal() {
+        Random random = new Random(7);
+        VatRate rate = VatRate.ofBasisPoints(1800);
+        VatAggregator invoice = new VatAggregator(rate);
+        BigDecimal exactVat = BigDecimal.ZERO;
+        long shares = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            long price = random.nextInt(1_000_000);
+            BigDecimal rubles = BigDecimal.valueOf(price, 2);
+            if (random.nextBoolean()) {
+                shares += invoice.addNet(price);
+                exactVat = exactVat.add(rubles.multiply(rate.getRate()));
+            } else {
+                shares += invoice.addGross(price);
+                exactVat = exactVat.add(rubles.multiply(rate.getRate()).divide(rate.getMultiplier(), MathContext.DECIMAL128));
+            }
+        }
+
+        assertEquals(exactVat.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact(), invoice.getTotalVatForReceipt());
+        assertEquals(exactVat.setScale(0, RoundingMode.HALF_UP).longValueExact(), invoice.getTotalVatForDeclaration());
+        assertEquals(shares, invoice.getTotalVatForReceipt());
+        assertEquals(invoice.getTotalPriceWithoutVat() + shares, invoice.getTotalPriceWithVat());
+    }
+
+    @Test
+    @DisplayName("Итог периода получается слиянием счетов")
+    void shouldMergeInvoicesIntoPeriod() {
+        VatAggregator period = new VatAggregator(VatRate.STANDARD);
+        VatAggregator single = new VatAggregator(VatRate.STANDARD);
+        long receipts = 0;
+
+        for (int invoiceNumber = 0; invoiceNumber < 3; invoiceNumber++) {
+            VatAggregator invoice = new VatAggregator(VatRate.STANDARD);
+            for (int i = 0; i < 10; i++) {
+                invoice.addNet(417);
+                single.addNet(417);
+            }
+            receipts += invoice.getTotalVatForReceipt();
+            period.merge(invoice);
+        }
+
+        assertEquals(30, period.getLineCount());
+        assertEquals(receipts, period.getTotalVatForReceipt());
+        assertEquals(single.getTotalVatForDeclaration(), period.getTotalVatForDeclaration());
+        assertEquals(25, period.getTotalVatForDeclaration());
+    }
+
+    @Test
+    @DisplayName("Должен бросать исключение при слиянии разных ставок и отрицательной цене")
+    void shouldRejectInvalidInput() {
+        VatAggregator standard = new VatAggregator(VatRate.STANDARD);
+
+        assertThrows(IllegalArgumentException.class, () -> standard.merge(new VatAggregator(VatRate.REDUCED)));
+        assertThrows(IllegalArgumentException.class, () -> standard.addGross(-1));
+    }
+}
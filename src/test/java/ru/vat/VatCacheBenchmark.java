@@ -0,0 +1,110 @@
+package ru.vat;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Бенчмарк: расчет НДС для строк заказов с Zipf-распределением цен без кэша и через {@link VatCache}.
+ * Для каждого варианта выводятся время, объем выделенной памяти и количество сборок мусора.
+ * Запуск: {@code java -cp target/classes:target/test-classes ru.vat.VatCacheBenchmark [показатель_Zipf]}.
+ */
+public class VatCacheBenchmark {
+
+    private static final int DISTINCT_PRICES = 5_000;
+    private static final int ORDER_LINES = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        double exponent = args.length > 0 ? Double.parseDouble(args[0]) : 1.1;
+        BigDecimal[] lines = generateLines(exponent);
+        VatCache cache = new VatCache(8_192);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            run("без кэша", lines, Vat::fromPriceWithoutVat);
+            run("с кэшем ", lines, cache::fromPriceWithoutVat);
+        }
+        System.out.printf("Кэш: попаданий %d, промахов %d, вытеснений %d%n",
+                cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount());
+    }
+
+    /**
+     * Строит строки заказов: цена с рангом {@code k} встречается с вероятностью, пропорциональной {@code 1 / k^s}.
+     */
+    private static BigDecimal[] generateLines(double exponent) {
+        BigDecimal[] prices = new BigDecimal[DISTINCT_PRICES];
+        double[] cumulative = new double[DISTINCT_PRICES];
+        Random random = new Random(42);
+        double total = 0;
+        for (int rank = 0; rank < DISTINCT_PRICES; rank++) {
+            prices[rank] = BigDecimal.valueOf(100 + random.nextInt(10_000_000), 2);
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+
+        BigDecimal[] lines = new BigDecimal[ORDER_LINES];
+        for (int i = 0; i < ORDER_LINES; i++) {
+            double point = random.nextDouble() * total;
+            int low = 0;
+            int high = DISTINCT_PRICES - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < point) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            // Отдельный объект для каждой строки, как после разбора цены из входных данных.
+            lines[i] = new BigDecimal(prices[low].unscaledValue(), 2);
+        }
+        return lines;
+    }
+
+    private static void run(String name, BigDecimal[] lines, Function<BigDecimal, Vat> factory) {
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        long sum = 0;
+        for (BigDecimal price : lines) {
+            Vat vat = factory.apply(price);
+            sum += vat.getVatForReceipt().unscaledValue().longValue() + vat.getPriceWithVat().scale();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.printf("%s: %.1f нс/строку, %.1f байт/строку, сборок мусора %d (%d мс)%n",
+                name, (double) elapsed / lines.length, (double) allocated / lines.length,
+                gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+        if (sum == Long.MIN_VALUE) {
+            System.out.println(sum);
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+}
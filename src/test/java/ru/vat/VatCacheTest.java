@@ -0,0 +1,94 @@
+package ru.vat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VatCacheTest {
+
+    @Test
+    @DisplayName("Для одной цены возвращается один экземпляр")
+    void shouldReturnSharedInstances() {
+        VatCache cache = new VatCache(100);
+        Vat first = cache.fromPriceWithoutVat(new BigDecimal("100.41"));
+
+        assertSame(first, cache.fromPriceWithoutVat(new BigDecimal("100.41")));
+        assertNotSame(first, cache.fromPriceWithVat(new BigDecimal("100.41")));
+        assertNotSame(first, cache.fromPriceWithoutVat(new BigDecimal("100.41"), VatRate.REDUCED));
+        assertEquals(new BigDecimal("20.08"), first.getVatForReceipt());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Давно не использованные записи вытесняются")
+    void shouldEvictLeastRecentlyUsed() {
+        VatCache cache = new VatCache(1);
+        Vat first = cache.fromPriceWithVat(BigDecimal.ONE);
+        cache.fromPriceWithVat(BigDecimal.TEN);
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNotSame(first, cache.fromPriceWithVat(BigDecimal.ONE));
+    }
+
+    @Test
+    @DisplayName("Размер кэша ограничен")
+    void shouldStayBounded() {
+        VatCache cache = new VatCache(64);
+        for (int i = 0; i < 10_000; i++) {
+            cache.fromPriceWithoutVat(BigDecimal.valueOf(i, 2));
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertEquals(10_000 - cache.size(), cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("Потоки получают общие экземпляры")
+    void shouldShareInstancesAcrossThreads() throws Exception {
+        VatCache cache = new VatCache(1000);
+        Set<Vat> instances = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        instances.add(cache.fromPriceWithVat(BigDecimal.valueOf(i % 100, 2)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(40_000, cache.getHitCount() + cache.getMissCount());
+        assertTrue(instances.size() >= 100);
+    }
+
+    @Test
+    @DisplayName("Должен бросать исключение при неверных параметрах")
+    void shouldRejectInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> new VatCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new VatCache(10).fromPriceWithVat(new BigDecimal("-1")));
+    }
+}
@@ -0,0 +1,125 @@
+package ru.vat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VatLedgerFileTest {
+
+    private static final VatLedgerProcessor PROCESSOR = new VatLedgerProcessor(VatRate.STANDARD, VatRate.REDUCED, VatRate.ZERO);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Столбцы читаются в том виде, в котором записаны")
+    void shouldReadColumnsAsWritten() throws IOException {
+        Path file = directory.resolve("ledger.vldg");
+        Random random = new Random(3);
+        long[] prices = new long[2500];
+        int[] categories = new int[prices.length];
+
+        try (VatLedgerWriter writer = VatLedgerWriter.create(file, 1000)) {
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = random.nextInt(1_000_000);
+                categories[i] = random.nextInt(3);
+                writer.write(prices[i], categories[i]);
+            }
+        }
+
+        try (VatLedgerReader reader = VatLedgerReader.open(file)) {
+            assertEquals(prices.length, reader.getRowCount());
+            assertEquals(3, reader.getBlockCount());
+            assertEquals(500, reader.getBlockRowCount(2));
+
+            int row = 0;
+            for (int block = 0; block < reader.getBlockCount(); block++) {
+                LongBuffer blockPrices = reader.prices(block);
+                IntBuffer blockCategories = reader.categories(block);
+                for (int i = 0; i < reader.getBlockRowCount(block); i++, row++) {
+                    assertEquals(prices[row], blockPrices.get(i));
+                    assertEquals(categories[row], blockCategories.get(i));
+                }
+            }
+            assertEquals(PROCESSOR.process(prices, categories), reader.process(PROCESSOR));
+        }
+        assertEquals(16 + 2500L * 12 + 3 * 8, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("CSV преобразуется в двоичную книгу")
+    void shouldConvertCsv() throws IOException {
+        Path file = directory.resolve("ledger.vldg");
+        String csv = "Цена;Категория\r\n12.5;1\r\n0.07,0\n\n100\t2\n 99.99 ; 0 ";
+
+        long rows;
+        try (VatLedgerWriter writer = VatLedgerWriter.create(file)) {
+            rows = VatLedgerCsvConverter.convert(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), writer);
+        }
+
+        assertEquals(4, rows);
+        try (VatLedgerReader reader = VatLedgerReader.open(file)) {
+            LongBuffer prices = reader.prices(0);
+            IntBuffer categories = reader.categories(0);
+            assertEquals(1250, prices.get(0));
+            assertEquals(7, prices.get(1));
+            assertEquals(10000, prices.get(2));
+            assertEquals(9999, prices.get(3));
+            assertEquals(1, categories.get(0));
+            assertEquals(2, categories.get(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Должен бросать исключение при ошибке в CSV")
+    void shouldRejectMalformedCsv() throws IOException {
+        try (VatLedgerWriter writer = VatLedgerWriter.create(directory.resolve("ledger.vldg"))) {
+            for (String csv : new String[]{"1.234;0", "12;x", "12", "-1;0", "1;0\nabc;1"}) {
+                assertThrows(IOException.class,
+                        () -> VatLedgerCsvConverter.convert(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), writer),
+                        csv);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Цена сверх предела отклоняется с учетом копеек")
+    void shouldRejectPriceAboveLimitWithKopecks() throws IOException {
+        long max = BulkVatCalculator.MAX_KOPECKS;
+        String limit = String.format("%d.%02d;0", max / 100, max % 100);
+        String above = (max / 100) + ".99;0";
+
+        Path file = directory.resolve("ledger.vldg");
+        try (VatLedgerWriter writer = VatLedgerWriter.create(file)) {
+            assertEquals(1, VatLedgerCsvConverter.convert(new ByteArrayInputStream(limit.getBytes(StandardCharsets.UTF_8)), writer));
+            IOException error = assertThrows(IOException.class,
+                    () -> VatLedgerCsvConverter.convert(new ByteArrayInputStream(above.getBytes(StandardCharsets.UTF_8)), writer));
+            assertTrue(error.getMessage().contains("цена слишком велика"));
+        }
+        try (VatLedgerReader reader = VatLedgerReader.open(file)) {
+            assertEquals(max, reader.prices(0).get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Должен бросать исключение для файла другого формата")
+    void shouldRejectForeignFile() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+
+        assertThrows(IOException.class, () -> VatLedgerReader.open(file));
+    }
+}
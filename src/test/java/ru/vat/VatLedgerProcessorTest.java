@@ -0,0 +1,78 @@
+package ru.vat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VatLedgerProcessorTest {
+
+    private static final VatRate[] RATES = {VatRate.STANDARD, VatRate.REDUCED, VatRate.ZERO};
+
+    private final VatLedgerProcessor processor = new VatLedgerProcessor(RATES);
+
+    @Test
+    @DisplayName("Параллельный пересчет совпадает с последовательным")
+    void parallelShouldMatchSequential() {
+        Random random = new Random(11);
+        int rows = 1_000_000;
+        long[] prices = new long[rows];
+        int[] categories = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            prices[i] = random.nextInt(10_000_000);
+            categories[i] = random.nextInt(RATES.length);
+        }
+
+        VatLedgerTotals sequential = processor.processSequential(prices, categories);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(sequential, processor.process(prices, categories, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(sequential, processor.process(prices, categories));
+        assertEquals(rows, sequential.getRowCount(0) + sequential.getRowCount(1) + sequential.getRowCount(2));
+    }
+
+    @Test
+    @DisplayName("Итоги совпадают с построчными расчетами Vat")
+    void totalsShouldMatchVat() {
+        long[] prices = {417, 10041, 12, 99999, 417};
+        int[] categories = {0, 0, 1, 1, 2};
+        VatLedgerTotals totals = processor.process(prices, categories);
+
+        for (int category = 0; category < RATES.length; category++) {
+            long net = 0;
+            long gross = 0;
+            long receipt = 0;
+            long declaration = 0;
+            for (int i = 0; i < prices.length; i++) {
+                if (categories[i] == category) {
+                    Vat vat = Vat.fromPriceWithoutVat(BigDecimal.valueOf(prices[i], 2), RATES[category]);
+                    net += prices[i];
+                    gross += vat.getPriceWithVat().movePointRight(2).longValueExact();
+                    receipt += vat.getVatForReceipt().movePointRight(2).longValueExact();
+                    declaration += vat.getVatForDeclaration().longValueExact();
+                }
+            }
+            assertEquals(net, totals.getPriceWithoutVat(category));
+            assertEquals(gross, totals.getPriceWithVat(category));
+            assertEquals(receipt, totals.getVatForReceipt(category));
+            assertEquals(declaration, totals.getVatForDeclaration(category));
+        }
+        assertEquals(1 + 20, totals.getVatForDeclaration(0));
+    }
+
+    @Test
+    @DisplayName("Должен бросать исключение при неверной строке книги")
+    void shouldRejectInvalidRows() {
+        assertThrows(IllegalArgumentException.class, () -> processor.process(new long[]{1}, new int[]{3}));
+        assertThrows(IllegalArgumentException.class, () -> processor.process(new long[]{-1}, new int[]{0}));
+        assertThrows(IllegalArgumentException.class, () -> processor.process(new long[2], new int[1]));
+    }
+}
@@ -0,0 +1,89 @@
+package ru.vat;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Микробенчмарк: создание {@link Vat} и расчет НДС для декларации при ставке-константе,
+ * при ставке из {@link VatRateRegistry} и при разборе ставки из строки на каждый расчет.
+ * Запуск: {@code java -cp target/classes:target/test-classes ru.vat.VatRateBenchmark}.
+ */
+public class VatRateBenchmark {
+
+    private static final int PRICES = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        BigDecimal[] prices = generatePrices();
+        VatRateRegistry registry = VatRateRegistry.withDefaults();
+        LocalDate date = LocalDate.of(2024, 1, 1);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long constantNanos = runWithConstant(prices);
+            long registryNanos = runWithRegistry(prices, registry, date);
+            long parsedNanos = runWithParsedRate(prices);
+
+            System.out.printf("Раунд %d: константа %.1f нс, таблица ставок %.1f нс, разбор ставки %.1f нс на цену%n",
+                    round, (double) constantNanos / PRICES, (double) registryNanos / PRICES,
+                    (double) parsedNanos / PRICES);
+        }
+    }
+
+    private static BigDecimal[] generatePrices() {
+        Random random = new Random(42);
+        BigDecimal[] prices = new BigDecimal[PRICES];
+        for (int i = 0; i < PRICES; i++) {
+            prices[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+        }
+        return prices;
+    }
+
+    private static long runWithConstant(BigDecimal[] prices) {
+        long sum = 0;
+        long start = System.nanoTime();
+
+        for (BigDecimal price : prices) {
+            sum += Vat.fromPriceWithoutVat(price).getVatForDeclaration().longValue();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        consume(sum);
+        return elapsed;
+    }
+
+    private static long runWithRegistry(BigDecimal[] prices, VatRateRegistry registry, LocalDate date) {
+        long sum = 0;
+        long start = System.nanoTime();
+
+        for (BigDecimal price : prices) {
+            VatRate rate = registry.rateFor(VatRateRegistry.STANDARD, date);
+            sum += Vat.fromPriceWithoutVat(price, rate).getVatForDeclaration().longValue();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        consume(sum);
+        return elapsed;
+    }
+
+    private static long runWithParsedRate(BigDecimal[] prices) {
+        long sum = 0;
+        long start = System.nanoTime();
+
+        for (BigDecimal price : prices) {
+            BigDecimal rate = new BigDecimal("0.20");
+            sum += price.multiply(rate).setScale(0, RoundingMode.HALF_UP).longValue();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        consume(sum);
+        return elapsed;
+    }
+
+    private static void consume(long value) {
+        if (value == Long.MIN_VALUE) {
+            System.out.println(value);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.vat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VatRateRegistryTest {
+
+    private final VatRateRegistry registry = VatRateRegistry.withDefaults();
+
+    @Test
+    @DisplayName("Ставки интернируются")
+    void shouldInternRates() {
+        assertSame(VatRate.STANDARD, VatRate.ofBasisPoints(2000));
+        assertSame(VatRate.REDUCED, VatRate.ofPercent(new BigDecimal("10.00")));
+        assertSame(VatRate.ofBasisPoints(850), VatRate.ofPercent(new BigDecimal("8.5")));
+        assertEquals(0, new BigDecimal("1.20").compareTo(VatRate.STANDARD.getMultiplier()));
+        assertEquals("20%", VatRate.STANDARD.toString());
+    }
+
+    @Test
+    @DisplayName("Должен бросать исключение при неверной ставке")
+    void shouldRejectInvalidRates() {
+        assertThrows(IllegalArgumentException.class, () -> VatRate.ofBasisPoints(-1));
+        assertThrows(IllegalArgumentException.class, () -> VatRate.ofBasisPoints(10_001));
+        assertThrows(IllegalArgumentException.class, () -> VatRate.ofPercent(new BigDecimal("8.125")));
+    }
+
+    @Test
+    @DisplayName("Ставка выбирается по категории и дате")
+    void shouldResolveRateByCategoryAndDate() {
+        assertEquals(1800, registry.rateFor(VatRateRegistry.STANDARD, LocalDate.of(2018, 12, 31)).getBasisPoints());
+        assertSame(VatRate.STANDARD, registry.rateFor(VatRateRegistry.STANDARD, LocalDate.of(2019, 1, 1)));
+        assertSame(VatRate.REDUCED, registry.rateFor(VatRateRegistry.REDUCED, LocalDate.of(2024, 6, 1)));
+        assertSame(VatRate.ZERO, registry.rateFor(VatRateRegistry.ZERO, LocalDate.of(2024, 6, 1)));
+    }
+
+    @Test
+    @DisplayName("Должен бросать исключение для неизвестной категории или даты")
+    void shouldRejectUnknownCategoryOrDate() {
+        assertThrows(IllegalArgumentException.class, () -> registry.rateFor("luxury", LocalDate.of(2024, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> registry.rateFor(VatRateRegistry.STANDARD, LocalDate.of(2003, 12, 31)));
+    }
+
+    @Test
+    @DisplayName("Расчеты Vat используют выбранную ставку")
+    void shouldCalculateWithGivenRate() {
+        Vat vat = Vat.fromPriceWithVat(new BigDecimal("110.00"), VatRate.REDUCED);
+
+        assertEquals(new BigDecimal("100.00"), vat.getPriceWithoutVat());
+        assertEquals(new BigDecimal("10.00"), vat.getVatForReceipt());
+        assertEquals(new BigDecimal("0.00"), Vat.fromPriceWithoutVat(new BigDecimal("55.55"), VatRate.ZERO).getVatForReceipt());
+        assertSame(VatRate.REDUCED, vat.getRate());
+    }
+}
@@ -2,14 +2,17 @@ package ru.vat;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class VatTest {
@@ -85,4 +88,87 @@ public class VatTest {
             assertEquals(priceFull.setScale(2, RoundingMode.HALF_UP), vat.getPriceWithVat(), "Полная цена с НДС (проверка целостности)");
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Быстрый расчет цены с НДС в копейках")
+    class KopeckFastPathTests {
+
+        @Test
+        @DisplayName("Быстрый расчет совпадает с делением BigDecimal для случайных цен и ставок")
+        void fastPathShouldMatchBigDecimalPath() {
+            Random random = new Random(20240101);
+
+            for (int i = 0; i < 200_000; i++) {
+                VatRate rate = i % 4 == 0
+                        ? VatRate.ofBasisPoints(random.nextInt(10_001))
+                        : new VatRate[]{VatRate.STANDARD, VatRate.REDUCED, VatRate.ZERO}[i % 4 - 1];
+                long kopecks = switch (i % 3) {
+                    case 0 -> random.nextInt(100_000);
+                    case 1 -> random.nextInt(100) * 50L;
+                    default -> (random.nextLong() >>> 1) % 100_000_000_000_000L;
+                };
+                BigDecimal price = BigDecimal.valueOf(kopecks, 2 - random.nextInt(3) % 2);
+
+                assertSameAmounts(price, rate);
+            }
+        }
+
+        @ParameterizedTest(name = "Полная цена: {0}")
+        @ValueSource(strings = {"0", "0.00", "0.5", "3", "29.50", "1E+3", "0.03", "12345678901234.56"})
+        @DisplayName("Быстрый расчет совпадает с делением BigDecimal на граничных значениях")
+        void fastPathShouldMatchOnEdgeValues(String priceWithVat) {
+            for (VatRate rate : new VatRate[]{VatRate.STANDARD, VatRate.REDUCED, VatRate.ZERO, VatRate.ofBasisPoints(1800)}) {
+                assertSameAmounts(new BigDecimal(priceWithVat), rate);
+            }
+        }
+
+        @Test
+        @DisplayName("Цены точнее копейки рассчитываются делением BigDecimal")
+        void shouldFallBackForSubKopeckPrices() {
+            Vat vat = Vat.fromPriceWithVat(new BigDecimal("1.005"));
+
+            assertEquals(new BigDecimal("0.84"), vat.getPriceWithoutVat());
+            assertEquals(new BigDecimal("1.01"), vat.getPriceWithVat());
+        }
+
+        private void assertSameAmounts(BigDecimal price, VatRate rate) {
+            Vat fast = Vat.fromPriceWithVat(price, rate);
+            Vat exact = Vat.fromPriceWithVatExact(price, rate);
+            String context = price + " по ставке " + rate;
+
+            assertEquals(exact.getPriceWithVat(), fast.getPriceWithVat(), "Полная цена для " + context);
+            assertEquals(exact.getPriceWithoutVat(), fast.getPriceWithoutVat(), "Цена без НДС для " + context);
+            assertEquals(exact.getVatForReceipt(), fast.getVatForReceipt(), "НДС для чека для " + context);
+            assertEquals(exact.getVatForDeclaration(), fast.getVatForDeclaration(), "НДС для декларации для " + context);
+        }
+    }
+
+    @Nested
+    @DisplayName("Тесты вычисления всех сумм")
+    class ComputeAllTests {
+
+        @ParameterizedTest(name = "Цена: {0}")
+        @ValueSource(strings = {"120.49", "0.01", "1.005", "99999.99"})
+        @DisplayName("Снимок сумм совпадает с геттерами и вычисляется один раз")
+        void computeAllShouldMatchGettersAndBeReused(String price) {
+            for (Vat vat : new Vat[]{Vat.fromPriceWithoutVat(new BigDecimal(price)), Vat.fromPriceWithVat(new BigDecimal(price))}) {
+                VatAmounts amounts = vat.computeAll();
+
+                assertSame(amounts, vat.computeAll());
+                assertSame(amounts.priceWithVat(), vat.getPriceWithVat());
+                assertEquals(amounts.priceWithoutVat(), vat.getPriceWithoutVat());
+                assertEquals(amounts.vatForReceipt(), vat.getVatForReceipt());
+                assertEquals(amounts.vatForDeclaration(), vat.getVatForDeclaration());
+            }
+        }
+
+        @Test
+        @DisplayName("Снимок сумм содержит значения расчета")
+        void computeAllShouldContainAmounts() {
+            VatAmounts amounts = Vat.fromPriceWithoutVat(new BigDecimal("100.41")).computeAll();
+
+            assertEquals(new VatAmounts(new BigDecimal("120.49"), new BigDecimal("100.41"),
+                    new BigDecimal("20.08"), new BigDecimal("20")), amounts);
+        }
+    }
+}